@@ -0,0 +1,93 @@
+package com.example.testwork.benchmark;
+
+import com.example.testwork.DTO.ClientDTO;
+import com.example.testwork.entity.Client;
+import com.example.testwork.mapper.Mapper;
+import com.example.testwork.repository.ClientRepository;
+import com.example.testwork.service.ClientPhoneIndex;
+import com.example.testwork.service.ClientSearchIndex;
+import com.example.testwork.service.ClientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Список из 10 000 клиентов: выдача через ClientService, чистый маппинг в DTO
+ * и поиск по мере ввода через индекс в памяти.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientServiceBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private ClientService clientService;
+    private List<Client> clients;
+
+    @Setup
+    public void setUp() {
+        clients = new ArrayList<>(CLIENTS);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (long id = 1; id <= CLIENTS; id++) {
+            clients.add(Client.builder()
+                    .id(id)
+                    .name("Клиент Номер " + id)
+                    .phone("+7916" + String.format("%07d", id))
+                    .email("client" + id + "@example.com")
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt)
+                    .build());
+        }
+
+        List<ClientDTO> clientDTOs = Mapper.INSTANCE.toDTOList(clients);
+        ClientRepository clientRepository = InMemoryRepositories.stub(ClientRepository.class, Map.of(
+                "findAll", args -> clients,
+                "findPageAfter", args -> clientDTOs.stream()
+                        .filter(client -> client.getId() > (Long) args[0])
+                        .limit(((Limit) args[1]).max())
+                        .toList()));
+
+        ClientSearchIndex clientSearchIndex = new ClientSearchIndex(clientRepository, true);
+        clientSearchIndex.load();
+        clientService = new ClientService(clientRepository, new ClientPhoneIndex(clientRepository, false),
+                clientSearchIndex);
+    }
+
+    @Benchmark
+    public List<ClientDTO> searchClientsByName() {
+        return clientService.searchClients("номер 12", 10);
+    }
+
+    @Benchmark
+    public List<ClientDTO> searchClientsByPhone() {
+        return clientService.searchClients("4567", 10);
+    }
+
+    @Benchmark
+    public List<ClientDTO> getAllClients() {
+        return clientService.getAllClients();
+    }
+
+    @Benchmark
+    public List<ClientDTO> toDTOList() {
+        return Mapper.INSTANCE.toDTOList(clients);
+    }
+}
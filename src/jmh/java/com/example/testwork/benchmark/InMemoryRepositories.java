@@ -0,0 +1,34 @@
+package com.example.testwork.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Заглушки репозиториев в памяти: вызовы по имени метода направляются
+ * в переданные обработчики, остальные методы не поддерживаются.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (instance, method, args) -> {
+                    Function<Object[], Object> handler = handlers.get(method.getName());
+                    if (handler != null) {
+                        return handler.apply(args);
+                    }
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "hashCode" -> System.identityHashCode(instance);
+                            case "equals" -> instance == args[0];
+                            default -> type.getSimpleName() + "InMemory";
+                        };
+                    }
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.testwork.benchmark;
+
+import com.example.testwork.DTO.AppointmentDTO;
+import com.example.testwork.DTO.TimeSlotResponseDTO;
+import com.example.testwork.cache.ScheduleDayCache;
+import com.example.testwork.entity.Client;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.entity.TimeSlot;
+import com.example.testwork.event.SlotChangedEvent;
+import com.example.testwork.repository.AppointmentRepository;
+import com.example.testwork.repository.ClientRepository;
+import com.example.testwork.repository.DaySlotView;
+import com.example.testwork.repository.ScheduleDayRepository;
+import com.example.testwork.repository.TimeSlotRepository;
+import com.example.testwork.service.DayOccupancyCache;
+import com.example.testwork.service.SlotCapacityEngine;
+import com.example.testwork.service.SlotVersionRegistry;
+import com.example.testwork.service.TimetableService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Год расписания, рабочий день 08:00-22:00 (14 часовых слотов),
+ * репозитории заменены структурами в памяти.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableServiceBenchmark {
+
+    private static final int DAYS = 365;
+    private static final int CLIENTS = 10_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    private static final LocalTime OPENING = LocalTime.of(8, 0);
+    private static final LocalTime CLOSING = LocalTime.of(22, 0);
+    private static final int MAX_CAPACITY = 10;
+
+    private TimetableService timetableService;
+    private LocalDate[] dates;
+    private AppointmentDTO[] reservations;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<LocalDate, ScheduleDay> schedules = new HashMap<>();
+        Map<LocalDate, List<TimeSlot>> timeSlots = new HashMap<>();
+        Map<Long, Client> clients = new HashMap<>();
+
+        dates = new LocalDate[DAYS];
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            dates[day] = date;
+            schedules.put(date, ScheduleDay.builder()
+                    .id((long) day)
+                    .date(date)
+                    .isHoliday(false)
+                    .openingTime(OPENING)
+                    .closingTime(CLOSING)
+                    .maxCapacity(MAX_CAPACITY)
+                    .build());
+
+            List<TimeSlot> daySlots = new ArrayList<>();
+            for (LocalTime hour = OPENING; hour.isBefore(CLOSING); hour = hour.plusHours(1)) {
+                daySlots.add(TimeSlot.builder()
+                        .scheduleDate(date)
+                        .hour(hour)
+                        .bookedCount(random.nextInt(MAX_CAPACITY + 1))
+                        .build());
+            }
+            timeSlots.put(date, daySlots);
+        }
+
+        for (long id = 1; id <= CLIENTS; id++) {
+            clients.put(id, Client.builder().id(id).name("Клиент " + id).phone("+7900" + id).build());
+        }
+
+        reservations = new AppointmentDTO[DAYS];
+        for (int day = 0; day < DAYS; day++) {
+            AppointmentDTO appointmentDTO = new AppointmentDTO();
+            appointmentDTO.setClientId(1L + random.nextInt(CLIENTS));
+            appointmentDTO.setDatetime(dates[day].atTime(OPENING.plusHours(random.nextInt(14))));
+            reservations[day] = appointmentDTO;
+        }
+
+        Map<LocalDate, List<DaySlotView>> daySlots = new HashMap<>();
+        schedules.forEach((date, schedule) -> daySlots.put(date, timeSlots.get(date).stream()
+                .<DaySlotView>map(slot -> new DaySlotRow(schedule.getIsHoliday(), schedule.getOpeningTime(),
+                        schedule.getClosingTime(), schedule.getMaxCapacity(), slot.getHour(), slot.getBookedCount()))
+                .toList()));
+
+        ScheduleDayRepository scheduleDayRepository = InMemoryRepositories.stub(ScheduleDayRepository.class, Map.of(
+                "findByDate", args -> Optional.ofNullable(schedules.get((LocalDate) args[0])),
+                "findDaySlots", args -> daySlots.getOrDefault((LocalDate) args[0], List.of())));
+        TimeSlotRepository timeSlotRepository = InMemoryRepositories.stub(TimeSlotRepository.class, Map.of(
+                "findByScheduleDate", args -> timeSlots.getOrDefault((LocalDate) args[0], List.of()),
+                "incrementBookedCount", args -> 1));
+        ClientRepository clientRepository = InMemoryRepositories.stub(ClientRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(clients.get((Long) args[0]))));
+        AppointmentRepository appointmentRepository = InMemoryRepositories.stub(AppointmentRepository.class, Map.of(
+                "findActiveByClientAndDate", args -> Optional.empty(),
+                "save", args -> args[0]));
+
+        SlotVersionRegistry slotVersionRegistry = new SlotVersionRegistry(Duration.ZERO);
+        timetableService = new TimetableService(
+                timeSlotRepository,
+                scheduleDayRepository,
+                clientRepository,
+                appointmentRepository,
+                new SlotCapacityEngine(null, null, event -> { }, false, 500),
+                null,
+                null,
+                new ScheduleDayCache(scheduleDayRepository, 1024, Duration.ofMinutes(10)),
+                event -> {
+                    if (event instanceof SlotChangedEvent changed) {
+                        slotVersionRegistry.onSlotChanged(changed);
+                    }
+                },
+                new DayOccupancyCache(slotVersionRegistry, 1024, Duration.ofHours(24)));
+    }
+
+    @Benchmark
+    public List<TimeSlotResponseDTO> getAvailableSlots() {
+        return timetableService.getAvailableSlots(nextDate());
+    }
+
+    @Benchmark
+    public List<TimeSlotResponseDTO> getAllBookedSlots() {
+        return timetableService.getAllBookedSlots(nextDate());
+    }
+
+    @Benchmark
+    public UUID reserveAppointment() {
+        return timetableService.reserveAppointment(reservations[nextIndex()]);
+    }
+
+    private LocalDate nextDate() {
+        return dates[nextIndex()];
+    }
+
+    private int nextIndex() {
+        int index = cursor;
+        cursor = index + 1 == DAYS ? 0 : index + 1;
+        return index;
+    }
+
+    private record DaySlotRow(Boolean getIsHoliday, LocalTime getOpeningTime, LocalTime getClosingTime,
+                              Integer getMaxCapacity, LocalTime getHour, Integer getBookedCount)
+            implements DaySlotView {
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.testwork.loadtest;
+
+import com.example.testwork.TestWorkApplication;
+import com.example.testwork.loadtest.LatencyRecorder.Operation;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Нагрузочный прогон "открытие горячего дня": поднимает приложение на встроенном PostgreSQL,
+ * создает расписание и клиентов, затем из concurrency потоков шлет /reserve, /cancel и /available,
+ * направляя hotShare запросов на первые hotDates дат. В конце печатает пропускную способность,
+ * перцентили задержек и проверяет, что ни один слот не переполнен.
+ */
+public final class BookingRushLoadTest {
+
+    private static final String TIMETABLE = "/api/v0/pool/timetable";
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final Pattern ORDER_ID = Pattern.compile("\"orderId\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final int OPENING_HOUR = 8;
+    private static final int CLOSING_HOUR = 22;
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final LocalDate firstDate;
+    private final ConcurrentLinkedQueue<Booking> bookings = new ConcurrentLinkedQueue<>();
+
+    private BookingRushLoadTest(LoadTestConfig config, int port) {
+        this.config = config;
+        this.baseUrl = "http://localhost:" + port;
+        this.firstDate = LocalDate.now().plusDays(1);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(TestWorkApplication.class)
+                     .properties(Map.of(
+                             "spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres")
+                                     + "&reWriteBatchedInserts=true",
+                             "spring.datasource.username", "postgres",
+                             "spring.datasource.password", "postgres",
+                             "spring.jpa.show-sql", "false",
+                             "server.port", "0",
+                             "pool.capacity-engine.enabled", String.valueOf(config.capacityEngine()),
+                             "pool.admission.enabled", String.valueOf(config.admission()),
+                             "pool.admission.rate-per-second", String.valueOf(config.admissionRatePerSecond()),
+                             "pool.admission.burst", String.valueOf(2 * config.admissionRatePerSecond())))
+                     .run(args)) {
+
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            BookingRushLoadTest loadTest = new BookingRushLoadTest(config, port);
+            loadTest.seed(jdbcTemplate);
+            String report = loadTest.run(jdbcTemplate);
+
+            System.out.println(report);
+            Path reportFile = Path.of(System.getProperty("loadtest.reportFile", "build/reports/loadtest/summary.txt"));
+            Files.createDirectories(reportFile.getParent());
+            Files.writeString(reportFile, report);
+        }
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) throws IOException, InterruptedException {
+        String schedule = """
+                {"from": "%s", "to": "%s",
+                 "defaultTemplate": {"openingTime": "%02d:00", "closingTime": "%02d:00", "maxCapacity": %d}}
+                """.formatted(firstDate, firstDate.plusDays(config.days() - 1),
+                OPENING_HOUR, CLOSING_HOUR, config.maxCapacity());
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v0/pool/admin/schedule/generate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(schedule)));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Не удалось создать расписание: " + response.body());
+        }
+
+        List<Object[]> clients = new ArrayList<>(config.clients());
+        for (long id = 1; id <= config.clients(); id++) {
+            clients.add(new Object[]{id, "Клиент " + id, String.format("+7999%07d", id)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO client (id, name, phone) VALUES (?, ?, ?)", clients);
+    }
+
+    private String run(JdbcTemplate jdbcTemplate) throws Exception {
+        runPhase(config.warmup());
+
+        long started = System.nanoTime();
+        List<LatencyRecorder> recorders = runPhase(config.duration());
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        LatencyRecorder total = new LatencyRecorder();
+        recorders.forEach(total::mergeFrom);
+
+        if (config.capacityEngine()) {
+            // даем SlotCapacityEngine сбросить накопленные счетчики в time_slots
+            Thread.sleep(1_000);
+        }
+
+        StringBuilder report = new StringBuilder()
+                .append(String.format("concurrency=%d duration=%.1fs hotDates=%d hotShare=%.2f maxDurationHours=%d "
+                                + "capacityEngine=%s admission=%s%n%n",
+                        config.concurrency(), seconds, config.hotDates(), config.hotShare(), config.maxDurationHours(),
+                        config.capacityEngine(), config.admission() ? config.admissionRatePerSecond() + "/s" : "off"))
+                .append(total.report(seconds))
+                .append('\n')
+                .append(checkConsistency(jdbcTemplate));
+        return report.toString();
+    }
+
+    private List<LatencyRecorder> runPhase(Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency());
+        try {
+            List<Future<LatencyRecorder>> futures = new ArrayList<>();
+            for (int i = 0; i < config.concurrency(); i++) {
+                futures.add(executor.submit(() -> worker(deadline)));
+            }
+            List<LatencyRecorder> recorders = new ArrayList<>();
+            for (Future<LatencyRecorder> future : futures) {
+                recorders.add(future.get());
+            }
+            return recorders;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LatencyRecorder worker(long deadline) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        try {
+            while (System.nanoTime() < deadline) {
+                int roll = random.nextInt(config.totalWeight());
+                if (roll < config.reserveWeight()) {
+                    reserve(recorder, random);
+                } else if (roll < config.reserveWeight() + config.cancelWeight()) {
+                    cancel(recorder);
+                } else {
+                    available(recorder, random);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return recorder;
+    }
+
+    private void reserve(LatencyRecorder recorder, ThreadLocalRandom random) throws InterruptedException {
+        long clientId = 1 + random.nextInt(config.clients());
+        int hours = 1 + random.nextInt(config.maxDurationHours());
+        LocalDateTime datetime = pickDate(random).atTime(OPENING_HOUR + random.nextInt(CLOSING_HOUR - OPENING_HOUR - hours + 1), 0);
+        String body = "{\"clientId\": " + clientId + ", \"datetime\": \"" + DATETIME.format(datetime)
+                + "\", \"durationHours\": " + hours + "}";
+
+        HttpResponse<String> response = call(recorder, Operation.RESERVE,
+                HttpRequest.newBuilder(URI.create(baseUrl + TIMETABLE + "/reserve"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)));
+
+        if (response != null && response.statusCode() == 201) {
+            Matcher matcher = ORDER_ID.matcher(response.body());
+            if (matcher.find()) {
+                bookings.add(new Booking(clientId, matcher.group(1)));
+            }
+        }
+    }
+
+    private void cancel(LatencyRecorder recorder) throws InterruptedException {
+        Booking booking = bookings.poll();
+        if (booking == null) {
+            return;
+        }
+        String body = "{\"clientId\": " + booking.clientId() + ", \"orderId\": \"" + booking.orderId() + "\"}";
+
+        call(recorder, Operation.CANCEL, HttpRequest.newBuilder(URI.create(baseUrl + TIMETABLE + "/cancel"))
+                .header("Content-Type", "application/json")
+                .method("GET", HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private void available(LatencyRecorder recorder, ThreadLocalRandom random) throws InterruptedException {
+        call(recorder, Operation.AVAILABLE, HttpRequest.newBuilder(
+                URI.create(baseUrl + TIMETABLE + "/available?date=" + pickDate(random))).GET());
+    }
+
+    /**
+     * Выполняет запрос и записывает задержку; обрыв соединения учитывается со статусом 0.
+     */
+    private HttpResponse<String> call(LatencyRecorder recorder, Operation operation, HttpRequest.Builder request)
+            throws InterruptedException {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = send(request);
+            recorder.record(operation, System.nanoTime() - started, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            recorder.record(operation, System.nanoTime() - started, 0);
+            return null;
+        }
+    }
+
+    private LocalDate pickDate(ThreadLocalRandom random) {
+        int hot = Math.min(config.hotDates(), config.days());
+        if (hot > 0 && (hot == config.days() || random.nextDouble() < config.hotShare())) {
+            return firstDate.plusDays(random.nextInt(hot));
+        }
+        return firstDate.plusDays(hot + random.nextInt(config.days() - hot));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Переполненные слоты по фактическим активным записям и расхождение счетчиков time_slots с ними.
+     * Запись на несколько часов учитывается в каждом своем часе.
+     */
+    private String checkConsistency(JdbcTemplate jdbcTemplate) {
+        String bookedPerHour = """
+                SELECT a.schedule_date, a.start_time + make_interval(hours => g.h) AS hour, COUNT(*) AS booked
+                FROM appointments a
+                CROSS JOIN LATERAL generate_series(0, COALESCE(a.duration_hours, 1) - 1) AS g(h)
+                WHERE a.status = 'active'
+                GROUP BY 1, 2
+                """;
+
+        List<String> overbooked = jdbcTemplate.query("""
+                        SELECT b.schedule_date, b.hour, b.booked, sd.max_capacity
+                        FROM (%s) b
+                        JOIN schedule_days sd ON sd.date = b.schedule_date
+                        WHERE b.booked > sd.max_capacity
+                        ORDER BY b.schedule_date, b.hour
+                        """.formatted(bookedPerHour),
+                (rs, rowNum) -> rs.getDate(1) + " " + rs.getTime(2) + ": "
+                        + rs.getInt(3) + " > " + rs.getInt(4));
+
+        Integer drifted = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*)
+                FROM time_slots ts
+                LEFT JOIN (%s) a
+                       ON a.schedule_date = ts.schedule_date AND a.hour = ts.hour
+                WHERE ts.booked_count <> COALESCE(a.booked, 0)
+                """.formatted(bookedPerHour), Integer.class);
+
+        StringBuilder out = new StringBuilder();
+        out.append("overbooked slots: ").append(overbooked.size()).append('\n');
+        overbooked.forEach(line -> out.append("  ").append(line).append('\n'));
+        out.append("time_slots counters out of sync: ").append(drifted).append('\n');
+        return out.toString();
+    }
+
+    private record Booking(long clientId, String orderId) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.testwork.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Точные задержки одного потока нагрузки; после прогона записи всех потоков сливаются
+ * и сортируются для расчета перцентилей. Пропускная способность и перцентили считаются
+ * только по успешным (2xx) ответам, отказы 429 от pool.admission и остальные ошибки
+ * выводятся отдельными счетчиками.
+ */
+final class LatencyRecorder {
+
+    enum Operation {
+        RESERVE, CANCEL, AVAILABLE
+    }
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final Map<Operation, long[]> samples = new EnumMap<>(Operation.class);
+    private final Map<Operation, Integer> sizes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, Integer>> statuses = new EnumMap<>(Operation.class);
+
+    LatencyRecorder() {
+        for (Operation operation : Operation.values()) {
+            samples.put(operation, new long[1024]);
+            sizes.put(operation, 0);
+            statuses.put(operation, new TreeMap<>());
+        }
+    }
+
+    void record(Operation operation, long nanos, int status) {
+        if (status >= 200 && status < 300) {
+            append(operation, nanos);
+        }
+        statuses.get(operation).merge(status, 1, Integer::sum);
+    }
+
+    void mergeFrom(LatencyRecorder other) {
+        for (Operation operation : Operation.values()) {
+            long[] values = other.samples.get(operation);
+            for (int i = 0; i < other.sizes.get(operation); i++) {
+                append(operation, values[i]);
+            }
+            other.statuses.get(operation).forEach((status, count) ->
+                    statuses.get(operation).merge(status, count, Integer::sum));
+        }
+    }
+
+    String report(double seconds) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-10s %10s %10s %10s %10s %10s %10s %10s %10s  %s%n",
+                "operation", "ok", "ok/s", "429", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms", "statuses"));
+        for (Operation operation : Operation.values()) {
+            int size = sizes.get(operation);
+            long[] sorted = Arrays.copyOf(samples.get(operation), size);
+            Arrays.sort(sorted);
+            int throttled = statuses.get(operation).getOrDefault(TOO_MANY_REQUESTS, 0);
+            int total = statuses.get(operation).values().stream().mapToInt(Integer::intValue).sum();
+            out.append(String.format("%-10s %10d %10.1f %10d %10d %10.2f %10.2f %10.2f %10.2f  %s%n",
+                    operation.name().toLowerCase(), size, size / seconds, throttled, total - size - throttled,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    size > 0 ? sorted[size - 1] / 1_000_000.0 : 0.0,
+                    statuses.get(operation)));
+        }
+        return out.toString();
+    }
+
+    private void append(Operation operation, long nanos) {
+        long[] values = samples.get(operation);
+        int size = sizes.get(operation);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            samples.put(operation, values);
+        }
+        values[size] = nanos;
+        sizes.put(operation, size + 1);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
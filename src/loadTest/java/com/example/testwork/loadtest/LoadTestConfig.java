@@ -0,0 +1,49 @@
+package com.example.testwork.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Параметры прогона, задаются системными свойствами loadtest.* (см. задачу loadTest в build.gradle).
+ * Ограничитель pool.admission по умолчанию выключен, чтобы горячий день мерил само бронирование,
+ * а не отказы 429; admission=true включает его с admissionRatePerSecond на дату.
+ */
+record LoadTestConfig(
+        int concurrency,
+        Duration duration,
+        Duration warmup,
+        int clients,
+        int days,
+        int hotDates,
+        double hotShare,
+        int reserveWeight,
+        int cancelWeight,
+        int availableWeight,
+        int maxCapacity,
+        int maxDurationHours,
+        boolean capacityEngine,
+        boolean admission,
+        int admissionRatePerSecond) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.concurrency", 64),
+                Duration.ofSeconds(Long.getLong("loadtest.durationSeconds", 60L)),
+                Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 10L)),
+                Integer.getInteger("loadtest.clients", 50_000),
+                Integer.getInteger("loadtest.days", 30),
+                Integer.getInteger("loadtest.hotDates", 3),
+                Double.parseDouble(System.getProperty("loadtest.hotShare", "0.8")),
+                Integer.getInteger("loadtest.reserveWeight", 50),
+                Integer.getInteger("loadtest.cancelWeight", 10),
+                Integer.getInteger("loadtest.availableWeight", 40),
+                Integer.getInteger("loadtest.maxCapacity", 10),
+                Integer.getInteger("loadtest.maxDurationHours", 1),
+                Boolean.getBoolean("loadtest.capacityEngine"),
+                Boolean.getBoolean("loadtest.admission"),
+                Integer.getInteger("loadtest.admissionRatePerSecond", 100));
+    }
+
+    int totalWeight() {
+        return reserveWeight + cancelWeight + availableWeight;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.testwork.DTO;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -19,4 +21,8 @@ public class AppointmentDTO {
     @FutureOrPresent(message = "Дата должна быть текущей или будущей")
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm")
     private LocalDateTime datetime;
+
+    @Min(value = 1, message = "Продолжительность должна быть от 1 до 3 часов")
+    @Max(value = 3, message = "Продолжительность должна быть от 1 до 3 часов")
+    private Integer durationHours = 1;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.testwork.DTO;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentHistoryDTO {
+    private UUID orderId;
+    private LocalDate date;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    private Integer durationHours;
+    private String status;
+}
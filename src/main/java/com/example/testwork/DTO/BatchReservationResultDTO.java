@@ -0,0 +1,16 @@
+package com.example.testwork.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReservationResultDTO {
+    private int index;
+    private UUID orderId;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.example.testwork.DTO;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+/**
+ * Слоты дня одним массивом: counts[i] относится к часу opening + i * step минут.
+ * Если расписания нет, opening равен null, а массив пуст.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactSlotsDTO {
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime opening;
+
+    private int step;
+    private int[] counts;
+}
@@ -0,0 +1,30 @@
+package com.example.testwork.DTO;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayTemplateDTO {
+
+    @NotNull(message = "Время открытия обязательно")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime openingTime;
+
+    @NotNull(message = "Время закрытия обязательно")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime closingTime;
+
+    @NotNull(message = "Вместимость обязательна")
+    @Min(value = 1, message = "Вместимость должна быть не меньше 1")
+    @Max(value = 10, message = "Вместимость должна быть не больше 10")
+    private Integer maxCapacity;
+}
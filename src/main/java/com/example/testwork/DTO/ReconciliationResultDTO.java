@@ -0,0 +1,16 @@
+package com.example.testwork.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationResultDTO {
+    private int chunks;
+    private List<SlotCorrectionDTO> corrected;
+    private List<SlotCorrectionDTO> skipped;
+}
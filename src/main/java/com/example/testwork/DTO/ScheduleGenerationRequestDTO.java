@@ -0,0 +1,36 @@
+package com.example.testwork.DTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+public class ScheduleGenerationRequestDTO {
+
+    @NotNull(message = "Начальная дата обязательна")
+    private LocalDate from;
+
+    @NotNull(message = "Конечная дата обязательна")
+    private LocalDate to;
+
+    /** Шаблон рабочего дня по умолчанию. */
+    @NotNull(message = "Шаблон рабочего дня обязателен")
+    @Valid
+    private DayTemplateDTO defaultTemplate;
+
+    /** Отдельные шаблоны для дней недели, например сокращенная суббота. */
+    private Map<DayOfWeek, @Valid DayTemplateDTO> weekdayTemplates = new EnumMap<>(DayOfWeek.class);
+
+    /** Еженедельные выходные. */
+    private Set<DayOfWeek> daysOff = new HashSet<>();
+
+    /** Праздничные даты внутри периода. */
+    private Set<LocalDate> holidays = new HashSet<>();
+}
@@ -0,0 +1,14 @@
+package com.example.testwork.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleGenerationResultDTO {
+    private int daysCreated;
+    private int daysSkipped;
+    private int slotsCreated;
+}
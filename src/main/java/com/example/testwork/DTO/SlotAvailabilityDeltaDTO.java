@@ -0,0 +1,20 @@
+package com.example.testwork.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Изменение числа свободных мест по часам одной даты:
+ * count в слоте — на сколько изменилось количество свободных мест.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotAvailabilityDeltaDTO {
+    private LocalDate date;
+    private List<TimeSlotResponseDTO> slots;
+}
@@ -0,0 +1,22 @@
+package com.example.testwork.DTO;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotCorrectionDTO {
+    private LocalDate date;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime hour;
+
+    private int storedCount;
+    private int actualCount;
+}
@@ -0,0 +1,128 @@
+package com.example.testwork.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру LRU-кэш с временем жизни записей.
+ * Значение, загруженное параллельно с инвалидацией, в кэш не попадает.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries;
+
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V getIfPresent(K key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generation();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            putIfNotInvalidated(key, loaded, generation);
+        }
+        return loaded;
+    }
+
+    /**
+     * Счетчик инвалидаций; значение, прочитанное до загрузки из источника,
+     * передается в putIfNotInvalidated.
+     */
+    public long generation() {
+        return invalidations.get();
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    /**
+     * Кладет значение, только если с момента generation не было ни одной инвалидации.
+     */
+    public void putIfNotInvalidated(K key, V value, long generation) {
+        synchronized (entries) {
+            if (invalidations.get() == generation) {
+                entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+            }
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
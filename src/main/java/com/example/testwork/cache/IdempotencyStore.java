@@ -0,0 +1,157 @@
+package com.example.testwork.cache;
+
+import com.example.testwork.exception.IdempotencyKeyReusedException;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ответы на запросы с заголовком Idempotency-Key.
+ * Повтор с тем же ключом и тем же телом возвращает сохраненный результат без вызова сервиса,
+ * параллельный повтор ждет завершения первого запроса. Сохраняются только успешные ответы:
+ * после отказа повтор выполняется заново.
+ */
+@Component
+public class IdempotencyStore implements MetricsSource {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final BoundedTtlCache<String, StoredResponse> responses;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public IdempotencyStore(@Value("${pool.idempotency.max-size:10000}") int maxSize,
+                            @Value("${pool.idempotency.ttl:24h}") Duration ttl) {
+        this.responses = new BoundedTtlCache<>(maxSize, ttl);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String idempotencyKey, Object request, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Ключ идемпотентности должен быть не длиннее " + MAX_KEY_LENGTH + " символов");
+        }
+
+        String key = operation + ':' + idempotencyKey;
+        while (true) {
+            StoredResponse stored = responses.getIfPresent(key);
+            if (stored != null) {
+                return (T) replay(stored, request);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                try {
+                    return (T) replay(running.join(), request);
+                } catch (CompletionException e) {
+                    // первый запрос завершился ошибкой, выполняем заново
+                    continue;
+                }
+            }
+
+            try {
+                T result = action.get();
+                StoredResponse response = new StoredResponse(request, result);
+                responses.put(key, response);
+                mine.complete(response);
+                return result;
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    /**
+     * Асинхронный вариант execute для запросов, проходящих admission: повтор завершенного запроса
+     * сразу получает сохраненный результат, повтор выполняющегося — результат первого, не занимая поток.
+     * firstExecution вызывается только для первого выполнения ключа (или без ключа) и решает,
+     * когда и где запустить action, например после получения токена допуска.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String operation, String idempotencyKey, Object request,
+                                                 Function<Supplier<T>, CompletableFuture<T>> firstExecution,
+                                                 Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return firstExecution.apply(action);
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Ключ идемпотентности должен быть не длиннее " + MAX_KEY_LENGTH + " символов");
+        }
+
+        String key = operation + ':' + idempotencyKey;
+        StoredResponse stored = responses.getIfPresent(key);
+        if (stored != null) {
+            return CompletableFuture.completedFuture((T) replay(stored, request));
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            // первый запрос завершился ошибкой — выполняем заново, уже как первое выполнение
+            return running.handle((response, error) -> error == null
+                            ? CompletableFuture.completedFuture((T) replay(response, request))
+                            : executeAsync(operation, idempotencyKey, request, firstExecution, action))
+                    .thenCompose(Function.identity());
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = firstExecution.apply(action);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            inFlight.remove(key, mine);
+            throw e;
+        }
+        return result.whenComplete((value, error) -> {
+            if (error == null) {
+                StoredResponse response = new StoredResponse(request, value);
+                responses.put(key, response);
+                mine.complete(response);
+            } else {
+                mine.completeExceptionally(error);
+            }
+            inFlight.remove(key, mine);
+        });
+    }
+
+    private Object replay(StoredResponse stored, Object request) {
+        if (!Objects.equals(stored.request(), request)) {
+            conflicts.increment();
+            throw new IdempotencyKeyReusedException("Ключ идемпотентности уже использован для другого запроса");
+        }
+        replays.increment();
+        return stored.response();
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_idempotency_replays_total", "counter", "Requests answered from the idempotency store");
+        writer.sample("pool_idempotency_replays_total", "", replays.sum());
+        writer.header("pool_idempotency_conflicts_total", "counter", "Idempotency keys reused with a different request");
+        writer.sample("pool_idempotency_conflicts_total", "", conflicts.sum());
+        writer.header("pool_idempotency_stored", "gauge", "Responses currently kept in the idempotency store");
+        writer.sample("pool_idempotency_stored", "", responses.size());
+    }
+
+    private record StoredResponse(Object request, Object response) {
+    }
+}
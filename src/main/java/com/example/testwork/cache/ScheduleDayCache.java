@@ -0,0 +1,73 @@
+package com.example.testwork.cache;
+
+import com.example.testwork.config.ReadConsistency;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import com.example.testwork.repository.ScheduleDayRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Кэш расписания по датам перед ScheduleDayRepository.
+ * Отсутствие расписания тоже кэшируется, поэтому любая запись в schedule_days
+ * должна сопровождаться вызовом invalidate.
+ */
+@Component
+public class ScheduleDayCache implements MetricsSource {
+
+    private final ScheduleDayRepository scheduleDayRepository;
+    private final BoundedTtlCache<LocalDate, Optional<ScheduleDay>> cache;
+
+    public ScheduleDayCache(ScheduleDayRepository scheduleDayRepository,
+                            @Value("${pool.schedule-cache.max-size:1024}") int maxSize,
+                            @Value("${pool.schedule-cache.ttl:10m}") Duration ttl) {
+        this.scheduleDayRepository = scheduleDayRepository;
+        this.cache = new BoundedTtlCache<>(maxSize, ttl);
+    }
+
+    public Optional<ScheduleDay> findByDate(LocalDate date) {
+        // отставшая реплика могла бы закэшировать отсутствие только что созданного дня
+        return cache.get(date, d -> ReadConsistency.onPrimary(() -> scheduleDayRepository.findByDate(d)));
+    }
+
+    /**
+     * Поколение кэша; читается до запроса к базе, результат которого потом
+     * передается в put, чтобы не вернуть в кэш день, сброшенный во время запроса.
+     */
+    public long generation() {
+        return cache.generation();
+    }
+
+    public void put(ScheduleDay scheduleDay, long generation) {
+        cache.putIfNotInvalidated(scheduleDay.getDate(), Optional.of(scheduleDay), generation);
+    }
+
+    public void invalidate(LocalDate date) {
+        cache.invalidate(date);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        CacheStats stats = cache.stats();
+        writer.header("pool_schedule_cache_requests_total", "counter", "Schedule day cache lookups");
+        writer.sample("pool_schedule_cache_requests_total", "result=\"hit\"", stats.hits());
+        writer.sample("pool_schedule_cache_requests_total", "result=\"miss\"", stats.misses());
+        writer.header("pool_schedule_cache_evictions_total", "counter", "Schedule day cache evictions");
+        writer.sample("pool_schedule_cache_evictions_total", "", stats.evictions());
+        writer.header("pool_schedule_cache_size", "gauge", "Schedule days currently cached");
+        writer.sample("pool_schedule_cache_size", "", stats.size());
+    }
+}
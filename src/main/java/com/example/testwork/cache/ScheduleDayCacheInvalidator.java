@@ -0,0 +1,47 @@
+package com.example.testwork.cache;
+
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.event.ScheduleChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Сбрасывает запись кэша при любом изменении ScheduleDay через JPA:
+ * сразу и повторно после фиксации транзакции, чтобы параллельное чтение
+ * не вернуло в кэш незафиксированное состояние.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduleDayCacheInvalidator {
+
+    private final ObjectProvider<ScheduleDayCache> scheduleDayCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(ScheduleDay scheduleDay) {
+        ScheduleDayCache cache = scheduleDayCache.getIfAvailable();
+        if (cache == null || scheduleDay.getDate() == null) {
+            return;
+        }
+
+        cache.invalidate(scheduleDay.getDate());
+        eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleDay.getDate()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(scheduleDay.getDate());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.testwork.config;
+
+import com.example.testwork.DTO.CompactSlotsDTO;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Запись CompactSlotsDTO в двоичном формате application/vnd.pool.slots (см. SlotMediaTypes).
+ */
+@Component
+public class CompactSlotsHttpMessageConverter extends AbstractHttpMessageConverter<CompactSlotsDTO> {
+
+    public static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final int MAX_UNSIGNED_BYTE = 0xFF;
+
+    public CompactSlotsHttpMessageConverter() {
+        super(SlotMediaTypes.COMPACT_BINARY);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CompactSlotsDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CompactSlotsDTO readInternal(Class<? extends CompactSlotsDTO> clazz, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Формат только для ответов", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(CompactSlotsDTO slots, MediaType contentType) {
+        return (long) HEADER_SIZE + slots.getCounts().length;
+    }
+
+    @Override
+    protected void writeInternal(CompactSlotsDTO slots, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        outputMessage.getBody().write(encode(slots));
+    }
+
+    public static byte[] encode(CompactSlotsDTO slots) {
+        int[] counts = slots.getCounts();
+        if (counts.length > MAX_UNSIGNED_BYTE) {
+            throw new HttpMessageNotWritableException("Слишком много слотов для двоичного формата");
+        }
+
+        int openingMinute = slots.getOpening() != null ? slots.getOpening().toSecondOfDay() / 60 : 0;
+        byte[] body = new byte[HEADER_SIZE + counts.length];
+        body[0] = FORMAT_VERSION;
+        body[1] = (byte) (openingMinute >>> 8);
+        body[2] = (byte) openingMinute;
+        body[3] = (byte) slots.getStep();
+        body[4] = (byte) counts.length;
+        for (int i = 0; i < counts.length; i++) {
+            body[HEADER_SIZE + i] = (byte) Math.max(0, Math.min(counts[i], MAX_UNSIGNED_BYTE));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.testwork.config;
+
+import com.example.testwork.service.DbConcurrencyLimiter;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Выдает соединение только с разрешением DbConcurrencyLimiter и возвращает разрешение
+ * при закрытии соединения. Так ограничение действует на любой код, который работает с БД:
+ * репозитории, потоковую выгрузку клиентов с курсором, администрирование и фоновые задачи.
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+
+    public ConcurrencyLimitedDataSource(DataSource target, DbConcurrencyLimiter dbConcurrencyLimiter) {
+        super(target);
+        this.dbConcurrencyLimiter = dbConcurrencyLimiter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        dbConcurrencyLimiter.acquire();
+        try {
+            return limited(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            dbConcurrencyLimiter.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        dbConcurrencyLimiter.acquire();
+        try {
+            return limited(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            dbConcurrencyLimiter.release();
+            throw e;
+        }
+    }
+
+    private Connection limited(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getTargetConnection" -> target;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Limited connection [" + target + "]";
+                    case "close" -> {
+                        try {
+                            target.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                dbConcurrencyLimiter.release();
+                            }
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.testwork.config;
+
+import com.example.testwork.service.DbConcurrencyLimiter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает DataSource в ConcurrencyLimitedDataSource, если включен pool.db-limiter.
+ * Выполняется последним, поверх маршрутизации на реплику, чтобы под ограничение
+ * попадали и чтения с реплики.
+ */
+@Component
+public class DbConcurrencyLimiterPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<DbConcurrencyLimiter> dbConcurrencyLimiter;
+
+    public DbConcurrencyLimiterPostProcessor(ObjectProvider<DbConcurrencyLimiter> dbConcurrencyLimiter) {
+        this.dbConcurrencyLimiter = dbConcurrencyLimiter;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)
+                || bean instanceof ConcurrencyLimitedDataSource) {
+            return bean;
+        }
+        DbConcurrencyLimiter limiter = dbConcurrencyLimiter.getObject();
+        return limiter.isEnabled() ? new ConcurrencyLimitedDataSource(dataSource, limiter) : bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.testwork.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Требование читать с основной БД в текущем потоке. Выставляется заголовком
+ * X-Read-Consistency: primary (клиент хочет сразу увидеть свою запись) и там,
+ * где отставание реплики недопустимо.
+ */
+public final class ReadConsistency {
+
+    public static final String HEADER = "X-Read-Consistency";
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadConsistency() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                PRIMARY_REQUIRED.set(previous);
+            } else {
+                PRIMARY_REQUIRED.remove();
+            }
+        }
+    }
+}
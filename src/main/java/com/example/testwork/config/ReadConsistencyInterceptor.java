@@ -0,0 +1,36 @@
+package com.example.testwork.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Переводит чтения запроса на основную БД, если клиент передал X-Read-Consistency: primary.
+ * Для асинхронных обработчиков afterCompletion на исходном потоке не вызывается,
+ * поэтому флаг снимается в afterConcurrentHandlingStarted и выставляется заново
+ * при повторной диспетчеризации.
+ */
+@Component
+public class ReadConsistencyInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (ReadConsistency.PRIMARY.equalsIgnoreCase(request.getHeader(ReadConsistency.HEADER))) {
+            ReadConsistency.requirePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ReadConsistency.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        ReadConsistency.clear();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.testwork.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Оборачивает основной DataSource в LazyConnectionDataSourceProxy: транзакции с readOnly = true
+ * получают соединение из пула реплики (pool.datasource.replica.*), остальные — из основного.
+ * Соединение берется только при первом запросе, когда флаг read-only уже известен.
+ */
+@Component
+@ConditionalOnProperty(prefix = "pool.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaRoutingPostProcessor implements BeanPostProcessor, EnvironmentAware, DisposableBean, Ordered {
+
+    private static final String PREFIX = "pool.datasource.replica.";
+
+    private Environment environment;
+    private HikariDataSource replica;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)
+                || bean instanceof LazyConnectionDataSourceProxy) {
+            return bean;
+        }
+
+        replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(environment.getRequiredProperty(PREFIX + "url"));
+        replica.setUsername(environment.getProperty(PREFIX + "username"));
+        replica.setPassword(environment.getProperty(PREFIX + "password"));
+        replica.setMaximumPoolSize(environment.getProperty(PREFIX + "maximum-pool-size", Integer.class, 10));
+        replica.setReadOnly(true);
+        // пул не должен падать при старте, если реплика еще не поднялась
+        replica.setInitializationFailTimeout(-1);
+        replica.setConnectionTimeout(environment.getProperty(PREFIX + "connection-timeout", Duration.class,
+                Duration.ofSeconds(2)).toMillis());
+
+        Duration retryAfter = environment.getProperty(PREFIX + "retry-after", Duration.class, Duration.ofSeconds(30));
+
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(new ReplicaFallbackDataSource(replica, primary, retryAfter));
+        return routing;
+    }
+
+    @Override
+    public int getOrder() {
+        // раньше DbConcurrencyLimiterPostProcessor, иначе основной DataSource окажется под ограничителем дважды
+        return 0;
+    }
+
+    @Override
+    public void destroy() {
+        if (replica != null) {
+            replica.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.testwork.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Источник соединений для read-only транзакций: реплика, а если она недоступна
+ * или потоку нужна основная БД, то основная. После ошибки реплика пропускается
+ * на время retryAfter, чтобы каждый запрос не ждал таймаута подключения.
+ */
+@Slf4j
+public class ReplicaFallbackDataSource extends AbstractDataSource {
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final long retryAfterNanos;
+
+    private volatile long replicaDownUntil;
+
+    public ReplicaFallbackDataSource(DataSource replica, DataSource primary, Duration retryAfter) {
+        this.replica = replica;
+        this.primary = primary;
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.replicaDownUntil = System.nanoTime();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadConsistency.isPrimaryRequired() || System.nanoTime() - replicaDownUntil < 0) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaDownUntil = System.nanoTime() + retryAfterNanos;
+            log.warn("Replica unavailable, reading from primary for the next {} ms", retryAfterNanos / 1_000_000, e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+}
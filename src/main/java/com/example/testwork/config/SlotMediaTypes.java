@@ -0,0 +1,62 @@
+package com.example.testwork.config;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Компактные представления слотов дня для /all и /available.
+ * JSON: {"opening":"08:00","step":60,"counts":[...]}.
+ * Двоичный формат (big-endian): версия формата (1 байт), минута открытия от начала суток (2 байта),
+ * шаг в минутах (1 байт), число слотов N (1 байт), затем N счетчиков по 1 байту.
+ */
+public final class SlotMediaTypes {
+
+    public static final String COMPACT_JSON_VALUE = "application/vnd.pool.slots+json";
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+
+    public static final String COMPACT_BINARY_VALUE = "application/vnd.pool.slots";
+    public static final MediaType COMPACT_BINARY = MediaType.parseMediaType(COMPACT_BINARY_VALUE);
+
+    private SlotMediaTypes() {
+    }
+
+    /**
+     * Компактный тип, который клиент предпочитает обычному JSON, или null.
+     * Из равных по q выбирается тип, указанный в Accept раньше.
+     */
+    public static MediaType preferredCompact(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+
+        MediaType best = null;
+        double bestQuality = 0;
+        for (MediaType mediaType : mediaTypes) {
+            MediaType candidate;
+            if (mediaType.equalsTypeAndSubtype(COMPACT_JSON)) {
+                candidate = COMPACT_JSON;
+            } else if (mediaType.equalsTypeAndSubtype(COMPACT_BINARY)) {
+                candidate = COMPACT_BINARY;
+            } else if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) {
+                candidate = null;
+            } else {
+                continue;
+            }
+            double quality = mediaType.getQualityValue();
+            if (quality > bestQuality) {
+                best = candidate;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.testwork.controller;
+
+import com.example.testwork.DTO.ReconciliationResultDTO;
+import com.example.testwork.DTO.ScheduleGenerationRequestDTO;
+import com.example.testwork.DTO.ScheduleGenerationResultDTO;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import com.example.testwork.service.DbConcurrencyLimiter;
+import com.example.testwork.service.ScheduleGenerationService;
+import com.example.testwork.service.SlotReconciliationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v0/pool/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+    private final List<MetricsSource> metricsSources;
+    private final ScheduleGenerationService scheduleGenerationService;
+    private final SlotReconciliationService slotReconciliationService;
+    private final ApplicationAvailability applicationAvailability;
+
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, String>> getReadiness() {
+        ReadinessState state = applicationAvailability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("readiness", state.name()));
+    }
+
+    @GetMapping("/db-limiter")
+    public ResponseEntity<DbConcurrencyLimiter.Stats> getDbLimiterStats() {
+        return ResponseEntity.ok(dbConcurrencyLimiter.stats());
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<String> getMetrics() {
+        MetricsWriter writer = new MetricsWriter();
+        metricsSources.forEach(source -> source.writeMetrics(writer));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MetricsWriter.CONTENT_TYPE))
+                .body(writer.toString());
+    }
+
+    @PostMapping("/schedule/generate")
+    public ResponseEntity<ScheduleGenerationResultDTO> generateSchedule(
+            @Valid @RequestBody ScheduleGenerationRequestDTO request) {
+        return ResponseEntity.ok(scheduleGenerationService.generate(request));
+    }
+
+    @PostMapping("/slots/reconcile")
+    public ResponseEntity<ReconciliationResultDTO> reconcileSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(slotReconciliationService.reconcile(from, to));
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.testwork.controller;
 
+import com.example.testwork.DTO.AppointmentHistoryDTO;
 import com.example.testwork.DTO.ClientDTO;
+import com.example.testwork.service.AppointmentHistoryService;
 import com.example.testwork.service.ClientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -15,12 +23,50 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ClientController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+
     private final ClientService clientService;
+    private final AppointmentHistoryService appointmentHistoryService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/all")
-    public ResponseEntity<List<ClientDTO>> getAllClients() {
-        List<ClientDTO> clients = clientService.getAllClients();
-        return ResponseEntity.ok(clients);
+    public ResponseEntity<List<ClientDTO>> getAllClients(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit) {
+        if (afterId == null && limit == null) {
+            List<ClientDTO> clients = clientService.getAllClients();
+            return ResponseEntity.ok(clients);
+        }
+
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        List<ClientDTO> clients = clientService.getClientsPage(afterId, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (clients.size() == pageSize) {
+            response.header("X-Next-After-Id", String.valueOf(clients.get(clients.size() - 1).getId()));
+        }
+        return response.body(clients);
+    }
+
+    @GetMapping("/all/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllClients() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                clientService.streamAllClients(generator::writePOJO);
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ClientDTO>> searchClients(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(clientService.searchClients(q, limit));
     }
 
     @GetMapping("/get/{id}")
@@ -29,6 +75,24 @@ public class ClientController {
         return ResponseEntity.ok(client);
     }
 
+    @GetMapping("/{id}/appointments")
+    public ResponseEntity<List<AppointmentHistoryDTO>> getAppointmentHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_HISTORY_PAGE_SIZE;
+        List<AppointmentHistoryDTO> appointments =
+                appointmentHistoryService.getHistory(id, status, from, to, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (appointments.size() == pageSize) {
+            LocalDate last = appointments.get(appointments.size() - 1).getDate();
+            response.header("X-Next-To", last.minusDays(1).toString());
+        }
+        return response.body(appointments);
+    }
+
     @PostMapping("/add")
     public ResponseEntity<ClientDTO> addClient(@Valid @RequestBody ClientDTO clientDTO) {
         ClientDTO createdClient = clientService.addClient(clientDTO);
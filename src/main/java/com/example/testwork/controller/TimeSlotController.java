@@ -1,22 +1,41 @@
 package com.example.testwork.controller;
 
 import com.example.testwork.DTO.AppointmentDTO;
+import com.example.testwork.DTO.BatchReservationResultDTO;
 import com.example.testwork.DTO.CancelRequestDTO;
+import com.example.testwork.DTO.CompactSlotsDTO;
 import com.example.testwork.DTO.TimeSlotResponseDTO;
+import com.example.testwork.cache.IdempotencyStore;
+import com.example.testwork.config.ReadConsistency;
+import com.example.testwork.config.SlotMediaTypes;
+import com.example.testwork.exception.TooManyRequestsException;
+import com.example.testwork.metrics.BookingMetrics;
+import com.example.testwork.metrics.BookingOperation;
+import com.example.testwork.service.DateAdmissionLimiter;
+import com.example.testwork.service.SlotAvailabilityBroadcaster;
+import com.example.testwork.service.SlotVersionRegistry;
 import com.example.testwork.service.TimetableService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.RestController;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 
 @RestController
@@ -25,35 +44,172 @@ import java.util.UUID;
 public class TimeSlotController {
 
     private final TimetableService timetableService;
+    private final BookingMetrics bookingMetrics;
+    private final IdempotencyStore idempotencyStore;
+    private final SlotAvailabilityBroadcaster slotAvailabilityBroadcaster;
+    private final SlotVersionRegistry slotVersionRegistry;
+    private final DateAdmissionLimiter dateAdmissionLimiter;
 
     @GetMapping("/all")
-    public ResponseEntity<List<TimeSlotResponseDTO>> getAllBookedSlots(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<TimeSlotResponseDTO> slots = timetableService.getAllBookedSlots(date);
-        return ResponseEntity.ok(slots);
+    public ResponseEntity<?> getAllBookedSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
+        MediaType compact = SlotMediaTypes.preferredCompact(accept);
+        String etag = representationEtag(slotVersionRegistry.etag(date), compact);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT);
+        if (compact != null) {
+            CompactSlotsDTO slots = readConsistent(date, date,
+                    () -> bookingMetrics.record(BookingOperation.BOOKED_SLOTS, () -> timetableService.getAllBookedSlotsCompact(date)));
+            return response.contentType(compact).body(slots);
+        }
+        List<TimeSlotResponseDTO> slots = readConsistent(date, date,
+                () -> bookingMetrics.record(BookingOperation.BOOKED_SLOTS, () -> timetableService.getAllBookedSlots(date)));
+        return response.body(slots);
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<TimeSlotResponseDTO>> getAvailableSlots(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<TimeSlotResponseDTO> slots = timetableService.getAvailableSlots(date);
-        return ResponseEntity.ok(slots);
+    public ResponseEntity<?> getAvailableSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
+        MediaType compact = SlotMediaTypes.preferredCompact(accept);
+        String etag = representationEtag(slotVersionRegistry.etag(date), compact);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT);
+        if (compact != null) {
+            CompactSlotsDTO slots = readConsistent(date, date,
+                    () -> bookingMetrics.record(BookingOperation.AVAILABLE_SLOTS, () -> timetableService.getAvailableSlotsCompact(date)));
+            return response.contentType(compact).body(slots);
+        }
+        List<TimeSlotResponseDTO> slots = readConsistent(date, date,
+                () -> bookingMetrics.record(BookingOperation.AVAILABLE_SLOTS, () -> timetableService.getAvailableSlots(date)));
+        return response.body(slots);
+    }
+
+    @GetMapping("/all/range")
+    public ResponseEntity<Map<LocalDate, List<TimeSlotResponseDTO>>> getAllBookedSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest webRequest) {
+        String etag = slotVersionRegistry.etag(from, to);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Map<LocalDate, List<TimeSlotResponseDTO>> slots = readConsistent(from, to,
+                () -> bookingMetrics.record(BookingOperation.BOOKED_SLOTS_RANGE, () -> timetableService.getAllBookedSlots(from, to)));
+        return ResponseEntity.ok().eTag(etag).body(slots);
+    }
+
+    @GetMapping("/available/range")
+    public ResponseEntity<Map<LocalDate, List<TimeSlotResponseDTO>>> getAvailableSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest webRequest) {
+        String etag = slotVersionRegistry.etag(from, to);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Map<LocalDate, List<TimeSlotResponseDTO>> slots = readConsistent(from, to,
+                () -> bookingMetrics.record(BookingOperation.AVAILABLE_SLOTS_RANGE, () -> timetableService.getAvailableSlots(from, to)));
+        return ResponseEntity.ok().eTag(etag).body(slots);
+    }
+
+    @GetMapping(value = "/available/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Set<LocalDate> dates) {
+        return slotAvailabilityBroadcaster.subscribe(dates);
     }
 
     @PostMapping("/reserve")
-    public ResponseEntity<Map<String, String>> reserveAppointment(
+    public CompletableFuture<ResponseEntity<Map<String, String>>> reserveAppointment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody AppointmentDTO appointmentDTO) {
-        UUID orderId = timetableService.reserveAppointment(appointmentDTO);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(Map.of("orderId", orderId.toString()));
+        // повтор уже выполненного или выполняющегося запроса отвечает без токена допуска
+        LocalDate date = appointmentDTO.getDatetime().toLocalDate();
+        return idempotencyStore.executeAsync("reserve", idempotencyKey, appointmentDTO,
+                        action -> dateAdmissionLimiter.admit(date, action),
+                        () -> bookingMetrics.record(BookingOperation.RESERVE,
+                                () -> timetableService.reserveAppointment(appointmentDTO)))
+                .thenApply(orderId -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Map.of("orderId", orderId.toString())));
+    }
+
+    /**
+     * Токен берется на каждую запись пачки допустимого размера; записи сверх лимита своей даты
+     * получают ошибку, остальные бронируются, когда подойдет самый поздний из их токенов.
+     */
+    @PostMapping("/reserve/batch")
+    public CompletableFuture<ResponseEntity<List<BatchReservationResultDTO>>> reserveAppointments(
+            @RequestBody List<AppointmentDTO> appointments) {
+        timetableService.checkBatchSize(appointments);
+
+        BatchReservationResultDTO[] results = new BatchReservationResultDTO[appointments.size()];
+        List<AppointmentDTO> admitted = new ArrayList<>(appointments.size());
+        List<Integer> positions = new ArrayList<>(appointments.size());
+        long waitNanos = 0;
+        for (int i = 0; i < appointments.size(); i++) {
+            AppointmentDTO appointment = appointments.get(i);
+            if (appointment.getDatetime() != null) {
+                try {
+                    waitNanos = Math.max(waitNanos, dateAdmissionLimiter.reserve(appointment.getDatetime().toLocalDate()));
+                } catch (TooManyRequestsException e) {
+                    results[i] = new BatchReservationResultDTO(i, null, e.getMessage());
+                    continue;
+                }
+            }
+            admitted.add(appointment);
+            positions.add(i);
+        }
+
+        return dateAdmissionLimiter.schedule(waitNanos, () -> {
+            if (!admitted.isEmpty()) {
+                List<BatchReservationResultDTO> booked = bookingMetrics.record(BookingOperation.RESERVE_BATCH,
+                        () -> timetableService.reserveAppointments(admitted));
+                for (BatchReservationResultDTO result : booked) {
+                    int position = positions.get(result.getIndex());
+                    results[position] = new BatchReservationResultDTO(position, result.getOrderId(), result.getError());
+                }
+            }
+            return ResponseEntity.ok(Arrays.asList(results));
+        });
     }
 
     @GetMapping("/cancel")
     public ResponseEntity<Map<String, Boolean>> cancelAppointment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CancelRequestDTO cancelRequest) {
-        boolean cancelled = timetableService.cancelAppointment(
-                cancelRequest.getClientId(),
-                cancelRequest.getOrderId());
+        boolean cancelled = idempotencyStore.execute("cancel", idempotencyKey, cancelRequest,
+                () -> bookingMetrics.record(BookingOperation.CANCEL,
+                        () -> timetableService.cancelAppointment(
+                                cancelRequest.getClientId(),
+                                cancelRequest.getOrderId())));
         return ResponseEntity.ok(Map.of("success", cancelled));
     }
+
+    /**
+     * У каждого представления свой ETag, иначе кэш мог бы отдать JSON вместо компактного формата.
+     */
+    private static String representationEtag(String etag, MediaType compact) {
+        if (compact == null) {
+            return etag;
+        }
+        String suffix = compact.equals(SlotMediaTypes.COMPACT_BINARY) ? "-b" : "-c";
+        return etag.substring(0, etag.length() - 1) + suffix + "\"";
+    }
+
+    /**
+     * Только что измененные даты читаются с основной БД, чтобы ответ соответствовал своему ETag.
+     */
+    private <T> T readConsistent(LocalDate from, LocalDate to, Supplier<T> read) {
+        if (!to.isBefore(from) && slotVersionRegistry.isRecentlyChanged(from, to)) {
+            return ReadConsistency.onPrimary(read);
+        }
+        return read.get();
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.testwork.entity;
 
+import com.example.testwork.cache.ScheduleDayCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,6 +11,7 @@ import java.time.LocalTime;
 
 @Entity
 @Table(name = "schedule_days")
+@EntityListeners(ScheduleDayCacheInvalidator.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,9 @@
+package com.example.testwork.event;
+
+import java.time.LocalDate;
+
+/**
+ * Создание или изменение дня расписания.
+ */
+public record ScheduleChangedEvent(LocalDate date) {
+}
@@ -0,0 +1,11 @@
+package com.example.testwork.event;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Изменение занятости часового слота: bookedDelta = +1 при записи, -1 при отмене.
+ * Слушатели получают событие после фиксации транзакции.
+ */
+public record SlotChangedEvent(LocalDate date, LocalTime hour, int bookedDelta) {
+}
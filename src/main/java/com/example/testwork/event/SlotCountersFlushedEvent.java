@@ -0,0 +1,10 @@
+package com.example.testwork.event;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * SlotCapacityEngine записал накопленные счетчики мест в time_slots.
+ */
+public record SlotCountersFlushedEvent(Set<LocalDate> dates) {
+}
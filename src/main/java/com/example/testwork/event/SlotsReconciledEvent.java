@@ -0,0 +1,10 @@
+package com.example.testwork.event;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * SlotReconciliationService исправил booked_count в time_slots за эти даты.
+ */
+public record SlotsReconciledEvent(Set<LocalDate> dates) {
+}
@@ -0,0 +1,15 @@
+package com.example.testwork.exception;
+
+import com.example.testwork.metrics.RejectionReason;
+import lombok.Getter;
+
+@Getter
+public class BookingRejectedException extends IllegalArgumentException {
+
+    private final RejectionReason reason;
+
+    public BookingRejectedException(RejectionReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+}
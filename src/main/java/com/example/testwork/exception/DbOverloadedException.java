@@ -0,0 +1,7 @@
+package com.example.testwork.exception;
+
+public class DbOverloadedException extends RuntimeException {
+    public DbOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.testwork.metrics;
+
+import com.example.testwork.exception.BookingRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Длительность, время в БД и отказы по операциям бронирования.
+ * Время в БД набирается RepositoryTimingPostProcessor в пределах текущего вызова record.
+ */
+@Component
+public class BookingMetrics implements MetricsSource {
+
+    private static final ThreadLocal<long[]> DB_NANOS = new ThreadLocal<>();
+
+    private final Map<BookingOperation, LatencyHistogram> latency = new EnumMap<>(BookingOperation.class);
+    private final Map<BookingOperation, LatencyHistogram> dbTime = new EnumMap<>(BookingOperation.class);
+    private final Map<BookingOperation, LongAdder> errors = new EnumMap<>(BookingOperation.class);
+    private final Map<RejectionReason, LongAdder> rejections = new EnumMap<>(RejectionReason.class);
+
+    public BookingMetrics() {
+        for (BookingOperation operation : BookingOperation.values()) {
+            latency.put(operation, new LatencyHistogram());
+            dbTime.put(operation, new LatencyHistogram());
+            errors.put(operation, new LongAdder());
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejections.put(reason, new LongAdder());
+        }
+    }
+
+    public <T> T record(BookingOperation operation, Supplier<T> action) {
+        long[] outer = DB_NANOS.get();
+        long[] db = new long[1];
+        DB_NANOS.set(db);
+        long started = System.nanoTime();
+
+        try {
+            return action.get();
+        } catch (BookingRejectedException e) {
+            rejections.get(e.getReason()).increment();
+            throw e;
+        } catch (IllegalArgumentException e) {
+            rejections.get(RejectionReason.INVALID_REQUEST).increment();
+            throw e;
+        } catch (RuntimeException e) {
+            errors.get(operation).increment();
+            throw e;
+        } finally {
+            latency.get(operation).record(System.nanoTime() - started);
+            dbTime.get(operation).record(db[0]);
+            if (outer != null) {
+                outer[0] += db[0];
+                DB_NANOS.set(outer);
+            } else {
+                DB_NANOS.remove();
+            }
+        }
+    }
+
+    public void recordRejection(RejectionReason reason) {
+        rejections.get(reason).increment();
+    }
+
+    public long getRejections(RejectionReason reason) {
+        return rejections.get(reason).sum();
+    }
+
+    public long getCalls(BookingOperation operation) {
+        return latency.get(operation).count();
+    }
+
+    static void addDbTime(long nanos) {
+        long[] db = DB_NANOS.get();
+        if (db != null) {
+            db[0] += nanos;
+        }
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_booking_duration_seconds", "histogram", "Booking operation latency");
+        latency.forEach((operation, histogram) ->
+                histogram.writeTo(writer, "pool_booking_duration_seconds", operationLabel(operation)));
+
+        writer.header("pool_booking_db_seconds", "histogram", "Time spent in repositories per booking operation");
+        dbTime.forEach((operation, histogram) ->
+                histogram.writeTo(writer, "pool_booking_db_seconds", operationLabel(operation)));
+
+        writer.header("pool_booking_errors_total", "counter", "Unexpected booking operation failures");
+        errors.forEach((operation, counter) ->
+                writer.sample("pool_booking_errors_total", operationLabel(operation), counter.sum()));
+
+        writer.header("pool_booking_rejections_total", "counter", "Rejected booking requests by reason");
+        rejections.forEach((reason, counter) ->
+                writer.sample("pool_booking_rejections_total", "reason=\"" + reason.getLabel() + "\"", counter.sum()));
+    }
+
+    private static String operationLabel(BookingOperation operation) {
+        return "operation=\"" + operation.getLabel() + "\"";
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.testwork.metrics;
+
+public enum BookingOperation {
+    RESERVE("reserve"),
+    RESERVE_BATCH("reserve_batch"),
+    CANCEL("cancel"),
+    AVAILABLE_SLOTS("available_slots"),
+    AVAILABLE_SLOTS_RANGE("available_slots_range"),
+    BOOKED_SLOTS("booked_slots"),
+    BOOKED_SLOTS_RANGE("booked_slots_range");
+
+    private final String label;
+
+    BookingOperation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.testwork.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительностей с фиксированными границами корзин.
+ * Запись — один атомарный инкремент без блокировок.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MICROS = {
+            50, 100, 250, 500,
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int index = Arrays.binarySearch(BOUNDS_MICROS, micros);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        counts.incrementAndGet(index);
+        sumNanos.add(nanos);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public void writeTo(MetricsWriter writer, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+            cumulative += counts.get(i);
+            writer.sample(name + "_bucket", prefix + "le=\"" + BOUNDS_MICROS[i] / 1_000_000.0 + "\"", cumulative);
+        }
+        cumulative += counts.get(BOUNDS_MICROS.length);
+        writer.sample(name + "_bucket", prefix + "le=\"+Inf\"", cumulative);
+        writer.sample(name + "_sum", labels, sumNanos.sum() / 1_000_000_000.0);
+        writer.sample(name + "_count", labels, cumulative);
+    }
+}
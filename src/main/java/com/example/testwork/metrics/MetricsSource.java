@@ -0,0 +1,8 @@
+package com.example.testwork.metrics;
+
+/**
+ * Компонент, публикующий свои показатели через /api/v0/pool/admin/metrics.
+ */
+public interface MetricsSource {
+    void writeMetrics(MetricsWriter writer);
+}
@@ -0,0 +1,42 @@
+package com.example.testwork.metrics;
+
+/**
+ * Формирует ответ в текстовом формате Prometheus (version 0.0.4).
+ */
+public class MetricsWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(8192);
+
+    public MetricsWriter header(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public MetricsWriter sample(String name, String labels, long value) {
+        appendName(name, labels);
+        out.append(value).append('\n');
+        return this;
+    }
+
+    public MetricsWriter sample(String name, String labels, double value) {
+        appendName(name, labels);
+        out.append(value).append('\n');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void appendName(String name, String labels) {
+        out.append(name);
+        if (labels != null && !labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+    }
+}
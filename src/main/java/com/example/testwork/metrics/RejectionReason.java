@@ -0,0 +1,24 @@
+package com.example.testwork.metrics;
+
+public enum RejectionReason {
+    INVALID_TIME("invalid_time"),
+    CLIENT_NOT_FOUND("client_not_found"),
+    NO_SCHEDULE("no_schedule"),
+    HOLIDAY("holiday"),
+    OUTSIDE_WORKING_HOURS("outside_working_hours"),
+    DUPLICATE_BOOKING("duplicate_booking"),
+    CAPACITY_FULL("capacity_full"),
+    APPOINTMENT_NOT_FOUND("appointment_not_found"),
+    ALREADY_CANCELLED("already_cancelled"),
+    INVALID_REQUEST("invalid_request");
+
+    private final String label;
+
+    RejectionReason(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.testwork.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Добавляет к прокси репозиториев замер времени вызова для BookingMetrics.
+ */
+@Component
+public class RepositoryTimingPostProcessor implements BeanPostProcessor {
+
+    private static final MethodInterceptor TIMING = invocation -> {
+        long started = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            BookingMetrics.addDbTime(System.nanoTime() - started);
+        }
+    };
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Advised advised && !advised.isFrozen() && isRepository(bean)) {
+            advised.addAdvice(0, TIMING);
+        }
+        return bean;
+    }
+
+    private boolean isRepository(Object bean) {
+        return bean instanceof org.springframework.data.repository.Repository<?, ?>
+                || AnnotatedElementUtils.hasAnnotation(AopUtils.getTargetClass(bean), Repository.class);
+    }
+}
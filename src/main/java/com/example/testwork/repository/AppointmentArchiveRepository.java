@@ -0,0 +1,53 @@
+package com.example.testwork.repository;
+
+import com.example.testwork.DTO.AppointmentHistoryDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Чтение appointments_archive (changeSet_005). Пока архивация выключена,
+ * таблицы может не быть, и запросы не выполняются.
+ */
+@Repository
+public class AppointmentArchiveRepository {
+
+    private static final String SELECT_HISTORY =
+            "SELECT id, schedule_date, start_time, duration_hours, status FROM appointments_archive " +
+            "WHERE client_id = ? AND schedule_date BETWEEN ? AND ? AND (CAST(? AS VARCHAR) IS NULL OR status = ?) " +
+            "ORDER BY schedule_date DESC LIMIT ?";
+
+    private static final RowMapper<AppointmentHistoryDTO> HISTORY_MAPPER = (rs, rowNum) -> new AppointmentHistoryDTO(
+            rs.getObject(1, UUID.class),
+            rs.getObject(2, LocalDate.class),
+            rs.getObject(3, LocalTime.class),
+            rs.getObject(4, Integer.class),
+            rs.getString(5));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public AppointmentArchiveRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${pool.archive.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<AppointmentHistoryDTO> findHistory(Long clientId, LocalDate from, LocalDate to,
+                                                   String status, int limit) {
+        if (!enabled) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT_HISTORY, HISTORY_MAPPER, clientId, from, to, status, status, limit);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.testwork.repository;
+
+import com.example.testwork.entity.Appointment;
+import com.example.testwork.entity.ScheduleDay;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class AppointmentBatchRepository {
+
+    private static final String INCREMENT_BOOKED_COUNT =
+            "WITH free AS (" +
+            "SELECT hour FROM time_slots " +
+            "WHERE schedule_date = ? AND hour BETWEEN ? AND ? AND booked_count < ? " +
+            "ORDER BY hour FOR UPDATE) " +
+            "UPDATE time_slots SET booked_count = booked_count + 1 " +
+            "WHERE schedule_date = ? AND hour IN (SELECT hour FROM free) " +
+            "AND (SELECT COUNT(*) FROM free) = ?";
+
+    private static final String INSERT_APPOINTMENTS =
+            "INSERT INTO appointments " +
+            "(id, client_id, schedule_date, start_time, duration_hours, status, created_at) VALUES ";
+
+    private static final String APPOINTMENT_VALUES = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SKIP_CONFLICTS = " ON CONFLICT DO NOTHING RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Занимает места в слотах одной пачкой. Записи на несколько часов занимают
+     * все часы диапазона либо ни одного. Для каждой записи возвращает
+     * количество обновленных строк: 0 означает, что свободных мест нет.
+     */
+    public int[] incrementBookedCounts(List<Appointment> appointments, Map<LocalDate, ScheduleDay> schedules) {
+        return jdbcTemplate.batchUpdate(INCREMENT_BOOKED_COUNT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Appointment appointment = appointments.get(i);
+                int hours = appointment.getDurationHours();
+                ps.setObject(1, appointment.getScheduleDate());
+                ps.setObject(2, appointment.getStartTime());
+                ps.setObject(3, appointment.getStartTime().plusHours(hours - 1));
+                ps.setInt(4, schedules.get(appointment.getScheduleDate()).getMaxCapacity());
+                ps.setObject(5, appointment.getScheduleDate());
+                ps.setInt(6, hours);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return appointments.size();
+            }
+        });
+    }
+
+    /**
+     * Вставляет записи одним запросом. Записи, нарушающие unique_client_per_day
+     * (например, из-за параллельной одиночной записи), пропускаются, а не откатывают
+     * всю пачку. Возвращает id действительно вставленных записей.
+     */
+    public Set<UUID> insertAll(List<Appointment> appointments) {
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        StringJoiner values = new StringJoiner(", ", INSERT_APPOINTMENTS, SKIP_CONFLICTS);
+        List<Object> args = new ArrayList<>(appointments.size() * 7);
+        for (Appointment appointment : appointments) {
+            values.add(APPOINTMENT_VALUES);
+            args.add(appointment.getId());
+            args.add(appointment.getClient().getId());
+            args.add(appointment.getScheduleDate());
+            args.add(appointment.getStartTime());
+            args.add(appointment.getDurationHours());
+            args.add(appointment.getStatus());
+            args.add(createdAt);
+        }
+
+        return new HashSet<>(jdbcTemplate.queryForList(values.toString(), UUID.class, args.toArray()));
+    }
+}
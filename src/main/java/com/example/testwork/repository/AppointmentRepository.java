@@ -1,6 +1,8 @@
 package com.example.testwork.repository;
 
+import com.example.testwork.DTO.AppointmentHistoryDTO;
 import com.example.testwork.entity.Appointment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,4 +40,31 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
     Optional<Appointment> findActiveByClientAndDate(
             @Param("clientId") Long clientId,
             @Param("date") LocalDate date);
-}
\ No newline at end of file
+
+    @Query("SELECT a FROM Appointment a " +
+            "WHERE a.client.id IN :clientIds " +
+            "AND a.scheduleDate IN :dates " +
+            "AND a.status = 'active'")
+    List<Appointment> findActiveByClientsAndDates(
+            @Param("clientIds") Collection<Long> clientIds,
+            @Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * Страница истории клиента от новых дат к старым. У клиента не больше одной записи на день,
+     * поэтому ключом страницы служит дата: следующая страница запрашивается с to на день раньше
+     * последней полученной даты. Читается только индекс idx_appointments_client_history.
+     */
+    @Query("SELECT new com.example.testwork.DTO.AppointmentHistoryDTO(" +
+            "a.id, a.scheduleDate, a.startTime, a.durationHours, a.status) " +
+            "FROM Appointment a " +
+            "WHERE a.client.id = :clientId " +
+            "AND a.scheduleDate BETWEEN :from AND :to " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "ORDER BY a.scheduleDate DESC")
+    List<AppointmentHistoryDTO> findHistory(
+            @Param("clientId") Long clientId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("status") String status,
+            Limit limit);
+}
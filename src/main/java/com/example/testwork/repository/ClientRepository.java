@@ -1,15 +1,35 @@
 package com.example.testwork.repository;
 
+import com.example.testwork.DTO.ClientDTO;
 import com.example.testwork.entity.Client;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByPhone(String phone);
     List<Client> findByNameContainingIgnoreCase(String name);
     boolean existsByPhone(String phone);
+
+    @Query("SELECT c.phone FROM Client c")
+    List<String> findAllPhones();
+
+    @Query("SELECT new com.example.testwork.DTO.ClientDTO(c.id, c.name, c.phone, c.email) " +
+            "FROM Client c WHERE c.id > :afterId ORDER BY c.id")
+    List<ClientDTO> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.testwork.DTO.ClientDTO(c.id, c.name, c.phone, c.email) " +
+            "FROM Client c ORDER BY c.id")
+    Stream<ClientDTO> streamAll();
 }
@@ -0,0 +1,21 @@
+package com.example.testwork.repository;
+
+import java.time.LocalTime;
+
+/**
+ * Строка совмещенного чтения дня: параметры расписания и один слот.
+ * Если слотов у дня нет, строка одна, а hour и bookedCount равны null.
+ */
+public interface DaySlotView {
+    Boolean getIsHoliday();
+
+    LocalTime getOpeningTime();
+
+    LocalTime getClosingTime();
+
+    Integer getMaxCapacity();
+
+    LocalTime getHour();
+
+    Integer getBookedCount();
+}
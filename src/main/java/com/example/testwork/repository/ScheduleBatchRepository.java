@@ -0,0 +1,81 @@
+package com.example.testwork.repository;
+
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.entity.TimeSlot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Массовое создание расписания многострочными INSERT.
+ * Уже существующие строки пропускаются через ON CONFLICT DO NOTHING.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduleBatchRepository {
+
+    private static final int DAYS_PER_STATEMENT = 500;
+    private static final int SLOTS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Вставляет дни расписания и возвращает даты, которые действительно были созданы.
+     */
+    public List<LocalDate> insertDays(List<ScheduleDay> days) {
+        List<LocalDate> created = new ArrayList<>(days.size());
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        for (int start = 0; start < days.size(); start += DAYS_PER_STATEMENT) {
+            List<ScheduleDay> chunk = days.subList(start, Math.min(start + DAYS_PER_STATEMENT, days.size()));
+            String sql = "INSERT INTO schedule_days " +
+                    "(date, is_holiday, opening_time, closing_time, max_capacity, created_at) VALUES " +
+                    String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?, ?)")) +
+                    " ON CONFLICT (date) DO NOTHING RETURNING date";
+
+            Object[] args = new Object[chunk.size() * 6];
+            int i = 0;
+            for (ScheduleDay day : chunk) {
+                args[i++] = day.getDate();
+                args[i++] = day.getIsHoliday();
+                args[i++] = day.getOpeningTime();
+                args[i++] = day.getClosingTime();
+                args[i++] = day.getMaxCapacity();
+                args[i++] = createdAt;
+            }
+            created.addAll(jdbcTemplate.queryForList(sql, LocalDate.class, args));
+        }
+
+        return created;
+    }
+
+    /**
+     * Вставляет часовые слоты с нулевым количеством записей, возвращает число созданных строк.
+     */
+    public int insertTimeSlots(List<TimeSlot> slots) {
+        int inserted = 0;
+
+        for (int start = 0; start < slots.size(); start += SLOTS_PER_STATEMENT) {
+            List<TimeSlot> chunk = slots.subList(start, Math.min(start + SLOTS_PER_STATEMENT, slots.size()));
+            String sql = "INSERT INTO time_slots (schedule_date, hour, booked_count) VALUES " +
+                    String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, 0)")) +
+                    " ON CONFLICT (schedule_date, hour) DO NOTHING";
+
+            Object[] args = new Object[chunk.size() * 2];
+            int i = 0;
+            for (TimeSlot slot : chunk) {
+                args[i++] = slot.getScheduleDate();
+                args[i++] = slot.getHour();
+            }
+            inserted += jdbcTemplate.update(sql, args);
+        }
+
+        return inserted;
+    }
+}
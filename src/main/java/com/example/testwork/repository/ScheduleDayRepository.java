@@ -1,14 +1,37 @@
 package com.example.testwork.repository;
 
 import com.example.testwork.entity.ScheduleDay;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ScheduleDayRepository extends JpaRepository<ScheduleDay, Long> {
     Optional<ScheduleDay> findByDate(LocalDate date);
     boolean existsByDate(LocalDate date);
+    List<ScheduleDay> findByDateIn(Collection<LocalDate> dates);
+    List<ScheduleDay> findByDateBetweenOrderByDate(LocalDate from, LocalDate to);
+
+    /**
+     * Расписание дня и его слоты одним запросом, без загрузки сущностей в контекст.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("SELECT sd.isHoliday AS isHoliday, sd.openingTime AS openingTime, sd.closingTime AS closingTime, " +
+            "sd.maxCapacity AS maxCapacity, ts.hour AS hour, ts.bookedCount AS bookedCount " +
+            "FROM ScheduleDay sd LEFT JOIN TimeSlot ts ON ts.scheduleDate = sd.date " +
+            "WHERE sd.date = :date " +
+            "ORDER BY ts.hour")
+    List<DaySlotView> findDaySlots(@Param("date") LocalDate date);
 }
@@ -20,6 +20,8 @@ public interface TimeSlotRepository extends JpaRepository<TimeSlot, TimeSlotId>
 
     List<TimeSlot> findByScheduleDate(LocalDate date);
 
+    List<TimeSlot> findByScheduleDateBetween(LocalDate from, LocalDate to);
+
     @Modifying
     @Query("UPDATE TimeSlot ts SET ts.bookedCount = ts.bookedCount + 1 " +
             "WHERE ts.scheduleDate = :date AND ts.hour = :hour " +
@@ -36,4 +38,36 @@ public interface TimeSlotRepository extends JpaRepository<TimeSlot, TimeSlotId>
     int decrementBookedCount(
             @Param("date") LocalDate date,
             @Param("hour") LocalTime hour);
-}
\ No newline at end of file
+
+    /**
+     * Занимает по месту в каждом часе диапазона [firstHour, lastHour] одним запросом.
+     * Строки диапазона блокируются в порядке часов, обновление выполняется,
+     * только если свободны все hours слотов; иначе возвращается 0.
+     */
+    @Modifying
+    @Query(value = "WITH free AS (" +
+            "SELECT hour FROM time_slots " +
+            "WHERE schedule_date = :date AND hour BETWEEN :firstHour AND :lastHour " +
+            "AND booked_count < :maxCapacity ORDER BY hour FOR UPDATE) " +
+            "UPDATE time_slots SET booked_count = booked_count + 1 " +
+            "WHERE schedule_date = :date AND hour IN (SELECT hour FROM free) " +
+            "AND (SELECT COUNT(*) FROM free) = :hours", nativeQuery = true)
+    int incrementBookedCountRange(
+            @Param("date") LocalDate date,
+            @Param("firstHour") LocalTime firstHour,
+            @Param("lastHour") LocalTime lastHour,
+            @Param("maxCapacity") Integer maxCapacity,
+            @Param("hours") Integer hours);
+
+    @Modifying
+    @Query(value = "WITH taken AS (" +
+            "SELECT hour FROM time_slots " +
+            "WHERE schedule_date = :date AND hour BETWEEN :firstHour AND :lastHour " +
+            "AND booked_count > 0 ORDER BY hour FOR UPDATE) " +
+            "UPDATE time_slots SET booked_count = booked_count - 1 " +
+            "WHERE schedule_date = :date AND hour IN (SELECT hour FROM taken)", nativeQuery = true)
+    int decrementBookedCountRange(
+            @Param("date") LocalDate date,
+            @Param("firstHour") LocalTime firstHour,
+            @Param("lastHour") LocalTime lastHour);
+}
@@ -0,0 +1,200 @@
+package com.example.testwork.service;
+
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Обслуживание секционированной таблицы appointments (changeSet_005, changeSet_007).
+ * Заранее создает помесячные секции (секции по умолчанию нет, поэтому это делается
+ * всегда, когда таблица секционирована). При pool.archive.enabled переносит записи
+ * за прошедшие дни в appointments_archive пачками по batch-size в отдельных транзакциях
+ * (активные записи при этом получают статус completed) и удаляет опустевшие секции
+ * прошлых месяцев: сначала DETACH PARTITION CONCURRENTLY, чтобы не блокировать
+ * appointments, затем DROP уже отсоединенной таблицы.
+ */
+@Slf4j
+@Component
+public class AppointmentArchiver implements MetricsSource {
+
+    private static final String PARTITION_PREFIX = "appointments_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String CREATE_PARTITION =
+            "CREATE TABLE IF NOT EXISTS %s PARTITION OF appointments FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String SELECT_IS_PARTITIONED =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+            "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = 'appointments')";
+
+    private static final String SELECT_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'appointments' AND c.relname LIKE 'appointments\\_p%' ";
+
+    private static final String SELECT_ATTACHED_PARTITIONS = SELECT_PARTITIONS + "AND NOT i.inhdetachpending";
+
+    private static final String SELECT_DETACH_PENDING_PARTITIONS = SELECT_PARTITIONS + "AND i.inhdetachpending";
+
+    private static final String DETACH_PARTITION = "ALTER TABLE appointments DETACH PARTITION %s %s";
+
+    private static final String MOVE_BATCH =
+            "WITH batch AS (" +
+            "SELECT id, schedule_date FROM appointments " +
+            "WHERE schedule_date < ? ORDER BY schedule_date LIMIT ? FOR UPDATE SKIP LOCKED), " +
+            "moved AS (" +
+            "DELETE FROM appointments a USING batch b " +
+            "WHERE a.id = b.id AND a.schedule_date = b.schedule_date " +
+            "RETURNING a.id, a.client_id, a.schedule_date, a.start_time, a.duration_hours, " +
+            "CASE WHEN a.status = 'active' THEN 'completed' ELSE a.status END AS status, a.created_at) " +
+            "INSERT INTO appointments_archive " +
+            "(id, client_id, schedule_date, start_time, duration_hours, status, created_at) " +
+            "SELECT id, client_id, schedule_date, start_time, duration_hours, status, created_at FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatches;
+    private final int monthsAhead;
+
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder droppedPartitions = new LongAdder();
+
+    public AppointmentArchiver(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${pool.archive.enabled:false}") boolean enabled,
+                               @Value("${pool.archive.batch-size:1000}") int batchSize,
+                               @Value("${pool.archive.max-batches:200}") int maxBatches,
+                               @Value("${pool.archive.months-ahead:13}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void ensurePartitions() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(SELECT_IS_PARTITIONED, Boolean.class))) {
+            return;
+        }
+
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++, month = month.plusMonths(1)) {
+            try {
+                jdbcTemplate.execute(String.format(CREATE_PARTITION,
+                        partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1)));
+            } catch (DataAccessException e) {
+                log.warn("Failed to create appointments partition for {}", month, e);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${pool.archive.cron:0 15 3 * * *}")
+    public void run() {
+        ensurePartitions();
+        if (!enabled) {
+            return;
+        }
+
+        int moved = archive(LocalDate.now());
+        int dropped = dropEmptyPartitions(YearMonth.now());
+        log.info("Appointments archived: {} rows moved, {} partitions dropped", moved, dropped);
+    }
+
+    /**
+     * Переносит записи с датой раньше cutoff пачками, не больше max-batches пачек за вызов;
+     * остаток будет перенесен при следующем запуске.
+     */
+    public int archive(LocalDate cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer moved = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(MOVE_BATCH, cutoff, batchSize));
+            int count = moved != null ? moved : 0;
+            total += count;
+            archived.add(count);
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Удаляет пустые секции месяцев раньше current. Вызывается вне транзакции:
+     * DETACH PARTITION CONCURRENTLY нельзя выполнять внутри транзакционного блока.
+     * Секции, отсоединение которых прервалось в прошлый раз, дочищаются через FINALIZE.
+     */
+    public int dropEmptyPartitions(YearMonth current) {
+        int dropped = 0;
+        for (String partition : jdbcTemplate.queryForList(SELECT_DETACH_PENDING_PARTITIONS, String.class)) {
+            if (detachAndDrop(partition, "FINALIZE")) {
+                dropped++;
+            }
+        }
+
+        for (String partition : jdbcTemplate.queryForList(SELECT_ATTACHED_PARTITIONS, String.class)) {
+            YearMonth month = parseMonth(partition);
+            if (month == null || !month.isBefore(current)) {
+                continue;
+            }
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+            if (Boolean.TRUE.equals(empty) && detachAndDrop(partition, "CONCURRENTLY")) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_archive_appointments_total", "counter", "Appointments moved to the archive");
+        writer.sample("pool_archive_appointments_total", "", archived.sum());
+        writer.header("pool_archive_partitions_dropped_total", "counter", "Empty appointment partitions dropped");
+        writer.sample("pool_archive_partitions_dropped_total", "", droppedPartitions.sum());
+    }
+
+    private boolean detachAndDrop(String partition, String mode) {
+        try {
+            jdbcTemplate.execute(String.format(DETACH_PARTITION, partition, mode));
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        } catch (DataAccessException e) {
+            log.warn("Failed to detach and drop appointments partition {}", partition, e);
+            return false;
+        }
+        droppedPartitions.increment();
+        return true;
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static YearMonth parseMonth(String partition) {
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
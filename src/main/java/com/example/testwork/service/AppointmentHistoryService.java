@@ -0,0 +1,74 @@
+package com.example.testwork.service;
+
+import com.example.testwork.DTO.AppointmentHistoryDTO;
+import com.example.testwork.repository.AppointmentArchiveRepository;
+import com.example.testwork.repository.AppointmentRepository;
+import com.example.testwork.repository.ClientRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class AppointmentHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Set<String> STATUSES = Set.of("active", "cancelled", "completed");
+    private static final LocalDate EARLIEST = LocalDate.of(2000, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final ClientRepository clientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+
+    /**
+     * Записи клиента от новых дат к старым, не больше limit.
+     * Записи за прошедшие дни, уже перенесенные в архив, дочитываются из appointments_archive;
+     * дата у записи одна из двух таблиц, поэтому страницы просто сливаются.
+     */
+    @Transactional(readOnly = true)
+    public List<AppointmentHistoryDTO> getHistory(Long clientId, String status,
+                                                  LocalDate from, LocalDate to, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        if (status != null && !STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Неизвестный статус записи");
+        }
+        LocalDate start = from != null ? from : EARLIEST;
+        LocalDate end = to != null ? to : LATEST;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Начало периода позже его окончания");
+        }
+        if (!clientRepository.existsById(clientId)) {
+            throw new EntityNotFoundException("Клиент не найден");
+        }
+
+        List<AppointmentHistoryDTO> recent = appointmentRepository.findHistory(
+                clientId, start, end, status, Limit.of(limit));
+        if (!appointmentArchiveRepository.isEnabled() || !start.isBefore(LocalDate.now())) {
+            return recent;
+        }
+
+        List<AppointmentHistoryDTO> archived = appointmentArchiveRepository.findHistory(
+                clientId, start, end, status, limit);
+        if (archived.isEmpty()) {
+            return recent;
+        }
+
+        List<AppointmentHistoryDTO> merged = new ArrayList<>(recent.size() + archived.size());
+        merged.addAll(recent);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(AppointmentHistoryDTO::getDate).reversed());
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.testwork.service;
+
+import com.example.testwork.repository.ClientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Множество нормализованных телефонов клиентов в памяти.
+ * Отсутствие номера в индексе позволяет пропустить existsByPhone;
+ * присутствие означает только, что нужна проверка в БД.
+ * Окончательную защиту от дубликатов дает уникальный индекс по phone.
+ */
+@Slf4j
+@Component
+public class ClientPhoneIndex {
+
+    private final ClientRepository clientRepository;
+    private final boolean enabled;
+    private final Set<String> phones = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    public ClientPhoneIndex(ClientRepository clientRepository,
+                            @Value("${pool.phone-index.enabled:true}") boolean enabled) {
+        this.clientRepository = clientRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        for (String phone : clientRepository.findAllPhones()) {
+            phones.add(normalize(phone));
+        }
+        loaded = true;
+
+        log.info("Client phone index loaded: {} phones in {} ms",
+                phones.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isDefinitelyAbsent(String phone) {
+        return loaded && !phones.contains(normalize(phone));
+    }
+
+    public void add(String phone) {
+        if (enabled) {
+            phones.add(normalize(phone));
+        }
+    }
+
+    static String normalize(String phone) {
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (Character.isDigit(c)) {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
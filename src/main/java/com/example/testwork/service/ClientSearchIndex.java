@@ -0,0 +1,345 @@
+package com.example.testwork.service;
+
+import com.example.testwork.DTO.ClientDTO;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import com.example.testwork.repository.ClientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Индекс клиентов в памяти для поиска по мере ввода по имени и телефону.
+ * Для каждого слова имени хранятся префиксы из 1-2 символов и триграммы, для телефона —
+ * триграммы цифр. Кандидаты получаются пересечением списков id, затем проверяются
+ * по самой записи и ранжируются: полное совпадение, начало имени, начало слов, подстрока.
+ * Клиенты, измененные через put во время начальной загрузки, не перетираются строками снимка.
+ */
+@Slf4j
+@Component
+public class ClientSearchIndex implements MetricsSource {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int GRAM = 3;
+    private static final String PREFIX_KEY = "^";
+    private static final String PHONE_KEY = "#";
+
+    private static final Comparator<Match> BEST_FIRST = Comparator
+            .comparingInt(Match::score)
+            .thenComparingInt(match -> match.entry().name().length())
+            .thenComparingLong(match -> match.entry().client().getId());
+
+    private final ClientRepository clientRepository;
+    private final boolean enabled;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Set<Long> updatedWhileLoading = new HashSet<>();
+    private final LongAdder searches = new LongAdder();
+    private volatile boolean loading;
+    private volatile boolean loaded;
+
+    public ClientSearchIndex(ClientRepository clientRepository,
+                             @Value("${pool.client-search.enabled:true}") boolean enabled) {
+        this.clientRepository = clientRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        long afterId = 0;
+        List<ClientDTO> page;
+        loading = true;
+        try {
+            do {
+                page = clientRepository.findPageAfter(afterId, Limit.of(LOAD_PAGE_SIZE));
+                page.forEach(this::indexLoaded);
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+        } finally {
+            finishLoading();
+        }
+        loaded = true;
+
+        log.info("Client search index loaded: {} clients, {} keys in {} ms",
+                entries.size(), postings.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Добавляет или обновляет клиента в индексе после фиксации текущей транзакции.
+     */
+    public void put(ClientDTO client) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index(client);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index(client);
+            }
+        });
+    }
+
+    /**
+     * Возвращает не более limit клиентов, у которых каждое слово запроса встречается в имени,
+     * либо, если запрос состоит из цифр, телефон содержит эти цифры (не меньше трех).
+     */
+    public List<ClientDTO> search(String query, int limit) {
+        searches.increment();
+
+        String phone = isPhoneQuery(query) ? ClientPhoneIndex.normalize(query) : null;
+        List<String> words = phone == null ? words(normalizeName(query)) : List.of();
+        if (phone != null ? phone.length() < GRAM : words.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        if (phone != null) {
+            trigrams(PHONE_KEY, phone, keys);
+        } else {
+            words.forEach(word -> wordKeys(word, keys));
+        }
+
+        String name = String.join(" ", words);
+        PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        for (Long id : candidates(keys)) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            int score = phone != null ? phoneScore(entry, phone) : nameScore(entry, name, words);
+            if (score < 0) {
+                continue;
+            }
+            top.add(new Match(entry, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(top);
+        matches.sort(BEST_FIRST);
+        List<ClientDTO> result = new ArrayList<>(matches.size());
+        matches.forEach(match -> result.add(match.entry().client()));
+        return result;
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_client_search_entries", "gauge", "Clients in the search index");
+        writer.sample("pool_client_search_entries", "", entries.size());
+        writer.header("pool_client_search_queries_total", "counter", "Client search queries");
+        writer.sample("pool_client_search_queries_total", "", searches.sum());
+    }
+
+    synchronized void index(ClientDTO client) {
+        if (loading) {
+            updatedWhileLoading.add(client.getId());
+        }
+        replace(client);
+    }
+
+    /**
+     * Строка снимка не заменяет клиента, обновленного после начала загрузки:
+     * зафиксированное изменение из put не старше любой прочитанной страницы.
+     */
+    private synchronized void indexLoaded(ClientDTO client) {
+        if (!updatedWhileLoading.contains(client.getId())) {
+            replace(client);
+        }
+    }
+
+    private synchronized void finishLoading() {
+        loading = false;
+        updatedWhileLoading.clear();
+    }
+
+    private void replace(ClientDTO client) {
+        Long id = client.getId();
+        String name = normalizeName(client.getName());
+        Entry entry = new Entry(client, name, words(name), ClientPhoneIndex.normalize(client.getPhone()));
+
+        Entry previous = entries.put(id, entry);
+        if (previous != null) {
+            for (String key : previous.keys()) {
+                postings.computeIfPresent(key, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+        for (String key : entry.keys()) {
+            postings.compute(key, (k, ids) -> {
+                Set<Long> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                result.add(id);
+                return result;
+            });
+        }
+    }
+
+    /**
+     * Пересечение списков id, начиная с самого короткого.
+     */
+    private List<Long> candidates(Set<String> keys) {
+        List<Set<Long>> lists = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Set<Long> ids = postings.get(key);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> result = new ArrayList<>();
+        Set<Long> smallest = lists.get(0);
+        for (Long id : smallest) {
+            boolean everywhere = true;
+            for (int i = 1; i < lists.size() && everywhere; i++) {
+                everywhere = lists.get(i).contains(id);
+            }
+            if (everywhere) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static int nameScore(Entry entry, String name, List<String> words) {
+        boolean wordPrefixes = true;
+        for (String word : words) {
+            boolean prefix = false;
+            for (String entryWord : entry.words()) {
+                if (entryWord.startsWith(word)) {
+                    prefix = true;
+                    break;
+                }
+            }
+            if (!prefix && (word.length() < GRAM || !entry.name().contains(word))) {
+                return -1;
+            }
+            wordPrefixes &= prefix;
+        }
+
+        if (entry.name().equals(name)) {
+            return 0;
+        }
+        if (entry.name().startsWith(name)) {
+            return 1;
+        }
+        return wordPrefixes ? 2 : 3;
+    }
+
+    private static int phoneScore(Entry entry, String phone) {
+        if (entry.phone().equals(phone)) {
+            return 0;
+        }
+        if (entry.phone().endsWith(phone)) {
+            return 1;
+        }
+        return entry.phone().contains(phone) ? 3 : -1;
+    }
+
+    private static boolean isPhoneQuery(String query) {
+        boolean digits = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isDigit(c)) {
+                digits = true;
+            } else if (c != '+' && c != '-' && c != '(' && c != ')' && !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    private static void wordKeys(String word, Set<String> keys) {
+        if (word.length() < GRAM) {
+            keys.add(PREFIX_KEY + word);
+        } else {
+            trigrams("", word, keys);
+        }
+    }
+
+    private static void trigrams(String kind, String value, Set<String> keys) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            keys.add(kind + value.substring(i, i + GRAM));
+        }
+    }
+
+    static String normalizeName(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean space = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    private static List<String> words(String normalizedName) {
+        return normalizedName.isEmpty() ? List.of() : List.of(normalizedName.split(" "));
+    }
+
+    private record Entry(ClientDTO client, String name, List<String> words, String phone) {
+
+        private Set<String> keys() {
+            Set<String> keys = new LinkedHashSet<>();
+            for (String word : words) {
+                keys.add(PREFIX_KEY + word.charAt(0));
+                if (word.length() > 1) {
+                    keys.add(PREFIX_KEY + word.substring(0, 2));
+                }
+                trigrams("", word, keys);
+            }
+            trigrams(PHONE_KEY, phone, keys);
+            return keys;
+        }
+    }
+
+    private record Match(Entry entry, int score) {
+    }
+}
@@ -6,23 +6,65 @@ import com.example.testwork.mapper.Mapper;
 import com.example.testwork.repository.ClientRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ClientService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_SEARCH_RESULTS = 50;
+
     private final ClientRepository clientRepository;
+    private final ClientPhoneIndex clientPhoneIndex;
+    private final ClientSearchIndex clientSearchIndex;
 
+    @Transactional(readOnly = true)
     public List<ClientDTO> getAllClients() {
         List<Client> clients = clientRepository.findAll();
         return Mapper.INSTANCE.toDTOList(clients);
     }
 
+    @Transactional(readOnly = true)
+    public List<ClientDTO> getClientsPage(Long afterId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return clientRepository.findPageAfter(afterId != null ? afterId : 0L, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllClients(Consumer<ClientDTO> consumer) {
+        try (Stream<ClientDTO> clients = clientRepository.streamAll()) {
+            clients.forEach(consumer);
+        }
+    }
+
+    /**
+     * Поиск по мере ввода по имени или телефону. Пока индекс не загружен,
+     * поиск по имени выполняется запросом к БД.
+     */
+    public List<ClientDTO> searchClients(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Строка поиска не может быть пустой");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Количество результатов должно быть от 1 до " + MAX_SEARCH_RESULTS);
+        }
+        if (clientSearchIndex.isLoaded()) {
+            return clientSearchIndex.search(query, limit);
+        }
+        List<Client> clients = clientRepository.findByNameContainingIgnoreCase(query.strip());
+        return Mapper.INSTANCE.toDTOList(clients.subList(0, Math.min(limit, clients.size())));
+    }
 
+    @Transactional(readOnly = true)
     public ClientDTO getClient(Long id) {
         Client client = clientRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Клиент не найден"));
@@ -31,7 +73,8 @@ public class ClientService {
 
     @Transactional
     public ClientDTO addClient(ClientDTO clientDTO) {
-        if (clientRepository.existsByPhone(clientDTO.getPhone())) {
+        if (!clientPhoneIndex.isDefinitelyAbsent(clientDTO.getPhone())
+                && clientRepository.existsByPhone(clientDTO.getPhone())) {
             throw new IllegalArgumentException("Клиент с таким телефоном уже существует");
         }
         Client client = Client.builder()
@@ -41,7 +84,10 @@ public class ClientService {
                 .build();
 
         Client savedClient = clientRepository.save(client);
-        return Mapper.INSTANCE.toClientDTO(savedClient);
+        clientPhoneIndex.add(savedClient.getPhone());
+        ClientDTO savedClientDTO = Mapper.INSTANCE.toClientDTO(savedClient);
+        clientSearchIndex.put(savedClientDTO);
+        return savedClientDTO;
     }
 
     @Transactional
@@ -50,7 +96,8 @@ public class ClientService {
                 .orElseThrow(() -> new EntityNotFoundException("Клиент не найден"));
 
         if (!client.getPhone().equals(clientDTO.getPhone())) {
-            if (clientRepository.existsByPhone(clientDTO.getPhone())) {
+            if (!clientPhoneIndex.isDefinitelyAbsent(clientDTO.getPhone())
+                    && clientRepository.existsByPhone(clientDTO.getPhone())) {
                 throw new IllegalArgumentException("Телефон уже используется другим клиентом");
             }
         }
@@ -60,7 +107,10 @@ public class ClientService {
         client.setEmail(clientDTO.getEmail());
 
         Client updatedClient = clientRepository.save(client);
-        return Mapper.INSTANCE.toClientDTO(updatedClient);
+        clientPhoneIndex.add(updatedClient.getPhone());
+        ClientDTO updatedClientDTO = Mapper.INSTANCE.toClientDTO(updatedClient);
+        clientSearchIndex.put(updatedClientDTO);
+        return updatedClientDTO;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.example.testwork.service;
+
+import com.example.testwork.exception.TooManyRequestsException;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Token bucket на каждую дату перед бронированием: горячая дата не может занять
+ * все соединения с БД. Корзины разбиты на полосы со своей блокировкой.
+ * Если токена нет, запрос резервирует будущий токен и ждет его не дольше max-wait,
+ * при этом в очереди одной даты не больше max-queued запросов; остальные сразу получают 429.
+ * Ожидание не занимает поток запроса и соединение с БД: бронирование откладывается
+ * и выполняется на отдельном пуле из threads потоков, когда подойдет его токен.
+ * Всего по всем датам откладывается не больше max-scheduled бронирований, сверх этого — 429.
+ */
+@Component
+public class DateAdmissionLimiter implements MetricsSource {
+
+    private static final int STRIPES = 64;
+    private static final int PRUNE_THRESHOLD = 32;
+
+    private final boolean enabled;
+    private final double tokensPerNano;
+    private final double burst;
+    private final long maxWaitNanos;
+    private final int maxQueued;
+    private final int maxScheduled;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ScheduledThreadPoolExecutor delayedExecutor;
+    private final AtomicInteger scheduled = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public DateAdmissionLimiter(@Value("${pool.admission.enabled:true}") boolean enabled,
+                                @Value("${pool.admission.rate-per-second:100}") double ratePerSecond,
+                                @Value("${pool.admission.burst:200}") int burst,
+                                @Value("${pool.admission.max-wait:250ms}") Duration maxWait,
+                                @Value("${pool.admission.max-queued:50}") int maxQueued,
+                                @Value("${pool.admission.threads:8}") int threads,
+                                @Value("${pool.admission.max-scheduled:1000}") int maxScheduled) {
+        this.enabled = enabled;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueued = maxQueued;
+        this.maxScheduled = maxScheduled;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.delayedExecutor = new ScheduledThreadPoolExecutor(threads, task -> {
+            Thread thread = new Thread(task, "date-admission-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Выполняет action, когда для даты найдется токен: сразу в текущем потоке
+     * или позже на отдельном пуле. Сверх лимита бросает TooManyRequestsException.
+     */
+    public <T> CompletableFuture<T> admit(LocalDate date, Supplier<T> action) {
+        return schedule(reserve(date), action);
+    }
+
+    /**
+     * Выполняет action через waitNanos, полученные от reserve; без ожидания — сразу в текущем потоке.
+     * Если отложено уже max-scheduled бронирований, бросает TooManyRequestsException.
+     */
+    public <T> CompletableFuture<T> schedule(long waitNanos, Supplier<T> action) {
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(action.get());
+        }
+        if (scheduled.incrementAndGet() > maxScheduled) {
+            scheduled.decrementAndGet();
+            throw rejectScheduling();
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            delayedExecutor.schedule(() -> {
+                scheduled.decrementAndGet();
+                try {
+                    result.complete(action.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }, waitNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // пул уже остановлен при закрытии контекста
+            scheduled.decrementAndGet();
+            throw rejectScheduling();
+        }
+        return result;
+    }
+
+    public int getScheduled() {
+        return scheduled.get();
+    }
+
+    /**
+     * Берет токен для даты и возвращает, сколько наносекунд ждать его появления (0 — токен уже есть).
+     * Сверх лимита бросает TooManyRequestsException.
+     */
+    public long reserve(LocalDate date) {
+        if (!enabled) {
+            return 0;
+        }
+
+        long waitNanos;
+        Stripe stripe = stripes[Math.floorMod(date.hashCode(), STRIPES)];
+        synchronized (stripe) {
+            long now = System.nanoTime();
+            Bucket bucket = stripe.buckets.get(date);
+            if (bucket == null) {
+                stripe.prune(now);
+                bucket = new Bucket(burst, now);
+                stripe.buckets.put(date, bucket);
+            }
+            bucket.refill(now);
+
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                waitNanos = 0;
+            } else {
+                // отрицательный остаток — число запросов, уже ожидающих свой токен
+                waitNanos = (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+                if (waitNanos > maxWaitNanos || -bucket.tokens >= maxQueued) {
+                    rejected.increment();
+                    throw new TooManyRequestsException("Слишком много запросов на эту дату, повторите позже",
+                            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+                }
+                bucket.tokens -= 1;
+            }
+        }
+
+        if (waitNanos > 0) {
+            delayed.increment();
+        }
+        admitted.increment();
+        return waitNanos;
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_admission_requests_total", "counter", "Booking admission decisions");
+        writer.sample("pool_admission_requests_total", "result=\"admitted\"", admitted.sum());
+        writer.sample("pool_admission_requests_total", "result=\"delayed\"", delayed.sum());
+        writer.sample("pool_admission_requests_total", "result=\"rejected\"", rejected.sum());
+        writer.header("pool_admission_scheduled", "gauge", "Bookings waiting for their admission token");
+        writer.sample("pool_admission_scheduled", "", scheduled.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delayedExecutor.shutdownNow();
+    }
+
+    private TooManyRequestsException rejectScheduling() {
+        rejected.increment();
+        return new TooManyRequestsException("Слишком много отложенных бронирований, повторите позже", 1);
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+
+    private final class Stripe {
+        private final Map<LocalDate, Bucket> buckets = new HashMap<>();
+
+        /**
+         * Полная корзина ничем не отличается от новой, поэтому ее можно удалить без потери состояния.
+         */
+        private void prune(long now) {
+            if (buckets.size() < PRUNE_THRESHOLD) {
+                return;
+            }
+            buckets.values().removeIf(bucket -> {
+                bucket.refill(now);
+                return bucket.tokens >= burst;
+            });
+        }
+    }
+}
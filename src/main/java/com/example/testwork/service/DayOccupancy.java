@@ -0,0 +1,143 @@
+package com.example.testwork.service;
+
+import com.example.testwork.DTO.CompactSlotsDTO;
+import com.example.testwork.DTO.TimeSlotResponseDTO;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.entity.TimeSlot;
+import com.example.testwork.repository.DaySlotView;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Занятость рабочего дня по часам: booked[i] соответствует часу openingTime + i.
+ * Строится за один проход по слотам дня.
+ */
+public final class DayOccupancy {
+
+    private static final int SECONDS_PER_HOUR = 3600;
+    private static final String[] TIME_LABELS = new String[24 * 60];
+
+    static {
+        for (int minute = 0; minute < TIME_LABELS.length; minute++) {
+            TIME_LABELS[minute] = LocalTime.of(minute / 60, minute % 60).toString();
+        }
+    }
+
+    private final LocalTime openingTime;
+    private final int maxCapacity;
+    private final int[] booked;
+
+    private DayOccupancy(LocalTime openingTime, int maxCapacity, int[] booked) {
+        this.openingTime = openingTime;
+        this.maxCapacity = maxCapacity;
+        this.booked = booked;
+    }
+
+    public static DayOccupancy of(ScheduleDay schedule, List<TimeSlot> timeSlots) {
+        DayOccupancy occupancy = empty(schedule);
+        for (TimeSlot slot : timeSlots) {
+            occupancy.set(slot.getHour(), slot.getBookedCount());
+        }
+        return occupancy;
+    }
+
+    /**
+     * Строит занятость по строкам совмещенного чтения; все строки относятся к одному дню.
+     */
+    public static DayOccupancy of(List<DaySlotView> rows) {
+        DaySlotView day = rows.get(0);
+        DayOccupancy occupancy = empty(day.getOpeningTime(), day.getClosingTime(), day.getMaxCapacity());
+        for (DaySlotView row : rows) {
+            if (row.getHour() != null) {
+                occupancy.set(row.getHour(), row.getBookedCount());
+            }
+        }
+        return occupancy;
+    }
+
+    public static DayOccupancy empty(ScheduleDay schedule) {
+        return empty(schedule.getOpeningTime(), schedule.getClosingTime(), schedule.getMaxCapacity());
+    }
+
+    private static DayOccupancy empty(LocalTime openingTime, LocalTime closingTime, int maxCapacity) {
+        int span = closingTime.toSecondOfDay() - openingTime.toSecondOfDay();
+        int hours = span > 0 ? (span + SECONDS_PER_HOUR - 1) / SECONDS_PER_HOUR : 0;
+        return new DayOccupancy(openingTime, maxCapacity, new int[hours]);
+    }
+
+    public int size() {
+        return booked.length;
+    }
+
+    public LocalTime getOpeningTime() {
+        return openingTime;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public LocalTime hourAt(int index) {
+        return openingTime.plusHours(index);
+    }
+
+    public int bookedAt(int index) {
+        return booked[index];
+    }
+
+    public int availableAt(int index) {
+        return maxCapacity - booked[index];
+    }
+
+    public List<TimeSlotResponseDTO> toBookedSlots() {
+        List<TimeSlotResponseDTO> slots = new ArrayList<>(booked.length);
+        for (int i = 0; i < booked.length; i++) {
+            slots.add(new TimeSlotResponseDTO(labelAt(i), booked[i]));
+        }
+        return slots;
+    }
+
+    public List<TimeSlotResponseDTO> toAvailableSlots() {
+        List<TimeSlotResponseDTO> slots = new ArrayList<>(booked.length);
+        for (int i = 0; i < booked.length; i++) {
+            int available = maxCapacity - booked[i];
+            if (available > 0) {
+                slots.add(new TimeSlotResponseDTO(labelAt(i), available));
+            }
+        }
+        return slots;
+    }
+
+    public CompactSlotsDTO toCompactBooked() {
+        return new CompactSlotsDTO(openingTime, 60, booked.clone());
+    }
+
+    /**
+     * В отличие от toAvailableSlots, заполненные часы не пропускаются, а дают 0.
+     */
+    public CompactSlotsDTO toCompactAvailable() {
+        int[] available = new int[booked.length];
+        for (int i = 0; i < booked.length; i++) {
+            available[i] = Math.max(maxCapacity - booked[i], 0);
+        }
+        return new CompactSlotsDTO(openingTime, 60, available);
+    }
+
+    private void set(LocalTime hour, Integer bookedCount) {
+        int offset = hour.toSecondOfDay() - openingTime.toSecondOfDay();
+        if (offset < 0 || offset % SECONDS_PER_HOUR != 0 || bookedCount == null) {
+            return;
+        }
+        int index = offset / SECONDS_PER_HOUR;
+        if (index < booked.length) {
+            booked[index] = bookedCount;
+        }
+    }
+
+    private String labelAt(int index) {
+        int minute = (openingTime.getHour() * 60 + openingTime.getMinute() + index * 60) % TIME_LABELS.length;
+        return TIME_LABELS[minute];
+    }
+}
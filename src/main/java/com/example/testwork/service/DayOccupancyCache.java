@@ -0,0 +1,83 @@
+package com.example.testwork.service;
+
+import com.example.testwork.cache.BoundedTtlCache;
+import com.example.testwork.config.ReadConsistency;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Занятость дня для чтений /all и /available по одной дате.
+ * Запись помечается версией даты из SlotVersionRegistry, прочитанной до запроса к базе,
+ * и отдается, только пока версия не изменилась: любая запись, отмена, сброс счетчиков,
+ * сверка или изменение расписания делают ее устаревшей без явной инвалидации.
+ * Отсутствие расписания не кэшируется, как и результат чтения с реплики по недавно
+ * изменившейся дате: реплика могла еще не получить изменение, уже учтенное в версии.
+ */
+@Component
+public class DayOccupancyCache implements MetricsSource {
+
+    private final SlotVersionRegistry slotVersionRegistry;
+    private final BoundedTtlCache<LocalDate, Entry> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DayOccupancyCache(SlotVersionRegistry slotVersionRegistry,
+                             @Value("${pool.occupancy-cache.max-size:1024}") int maxSize,
+                             @Value("${pool.occupancy-cache.ttl:24h}") Duration ttl) {
+        this.slotVersionRegistry = slotVersionRegistry;
+        this.cache = new BoundedTtlCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Занятость дня из кэша или из loader; loader возвращает null, если расписания нет.
+     */
+    public CachedDay get(LocalDate date, Function<LocalDate, CachedDay> loader) {
+        long version = slotVersionRegistry.version(date);
+        Entry entry = cache.getIfPresent(date);
+        if (entry != null && entry.version() == version) {
+            hits.increment();
+            return entry.day();
+        }
+
+        misses.increment();
+        CachedDay loaded = loader.apply(date);
+        if (loaded != null && (ReadConsistency.isPrimaryRequired() || !slotVersionRegistry.isRecentlyChanged(date, date))) {
+            cache.put(date, new Entry(version, loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * Версия даты; читается до запроса к базе и передается в put вместе с результатом.
+     */
+    public long version(LocalDate date) {
+        return slotVersionRegistry.version(date);
+    }
+
+    public void put(LocalDate date, CachedDay day, long version) {
+        cache.put(date, new Entry(version, day));
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_occupancy_cache_requests_total", "counter", "Day occupancy cache lookups");
+        writer.sample("pool_occupancy_cache_requests_total", "result=\"hit\"", hits.sum());
+        writer.sample("pool_occupancy_cache_requests_total", "result=\"miss\"", misses.sum());
+        writer.header("pool_occupancy_cache_size", "gauge", "Day occupancies currently cached");
+        writer.sample("pool_occupancy_cache_size", "", cache.size());
+    }
+
+    public record CachedDay(boolean holiday, DayOccupancy occupancy) {
+    }
+
+    private record Entry(long version, CachedDay day) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.testwork.service;
+
+import com.example.testwork.exception.DbOverloadedException;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничивает число запросов, одновременно работающих с БД.
+ * Нужен в режиме виртуальных потоков, где число потоков больше не ограничивает
+ * нагрузку на пул соединений. Учитывает время ожидания разрешения.
+ */
+@Component
+public class DbConcurrencyLimiter implements MetricsSource {
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final long acquireTimeoutNanos;
+    private final Semaphore permits;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public DbConcurrencyLimiter(@Value("${pool.db-limiter.enabled:false}") boolean enabled,
+                                @Value("${pool.db-limiter.max-concurrent:10}") int maxConcurrent,
+                                @Value("${pool.db-limiter.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void acquire() {
+        long started = System.nanoTime();
+        boolean permitted;
+        try {
+            permitted = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permitted = false;
+        }
+
+        long waited = System.nanoTime() - started;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!permitted) {
+            timeouts.increment();
+            throw new DbOverloadedException("Сервис перегружен, повторите запрос позже");
+        }
+        acquired.increment();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public Stats stats() {
+        long acquiredCount = acquired.sum();
+        long timeoutCount = timeouts.sum();
+        long waits = acquiredCount + timeoutCount;
+        return new Stats(
+                maxConcurrent,
+                maxConcurrent - permits.availablePermits(),
+                permits.getQueueLength(),
+                acquiredCount,
+                timeoutCount,
+                waits > 0 ? totalWaitNanos.sum() / waits / 1_000 : 0,
+                maxWaitNanos.get() / 1_000);
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        Stats stats = stats();
+        writer.header("pool_db_limiter_in_use", "gauge", "Requests currently holding a DB permit");
+        writer.sample("pool_db_limiter_in_use", "", stats.inUse());
+        writer.header("pool_db_limiter_waiting", "gauge", "Requests waiting for a DB permit");
+        writer.sample("pool_db_limiter_waiting", "", stats.waiting());
+        writer.header("pool_db_limiter_timeouts_total", "counter", "Requests rejected after waiting for a DB permit");
+        writer.sample("pool_db_limiter_timeouts_total", "", stats.timeouts());
+        writer.header("pool_db_limiter_wait_seconds", "summary", "Time spent waiting for a DB permit");
+        writer.sample("pool_db_limiter_wait_seconds_sum", "", totalWaitNanos.sum() / 1_000_000_000.0);
+        writer.sample("pool_db_limiter_wait_seconds_count", "", stats.acquired() + stats.timeouts());
+    }
+
+    public record Stats(int maxConcurrent,
+                        int inUse,
+                        int waiting,
+                        long acquired,
+                        long timeouts,
+                        long averageWaitMicros,
+                        long maxWaitMicros) {
+    }
+}
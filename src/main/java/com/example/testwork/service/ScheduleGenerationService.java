@@ -0,0 +1,120 @@
+package com.example.testwork.service;
+
+import com.example.testwork.DTO.DayTemplateDTO;
+import com.example.testwork.DTO.ScheduleGenerationRequestDTO;
+import com.example.testwork.DTO.ScheduleGenerationResultDTO;
+import com.example.testwork.cache.ScheduleDayCache;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.entity.TimeSlot;
+import com.example.testwork.event.ScheduleChangedEvent;
+import com.example.testwork.repository.ScheduleBatchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class ScheduleGenerationService {
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final ScheduleBatchRepository scheduleBatchRepository;
+    private final ScheduleDayCache scheduleDayCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Создает дни расписания за период по шаблонам и сразу все часовые слоты рабочих дней.
+     * Существующие дни не изменяются.
+     */
+    @Transactional
+    public ScheduleGenerationResultDTO generate(ScheduleGenerationRequestDTO request) {
+        LocalDate from = request.getFrom();
+        LocalDate to = request.getTo();
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Конечная дата раньше начальной");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Период не может превышать " + MAX_RANGE_DAYS + " дней");
+        }
+
+        Map<DayOfWeek, DayTemplateDTO> weekdayTemplates = request.getWeekdayTemplates();
+        validateTemplate(request.getDefaultTemplate());
+        if (weekdayTemplates != null) {
+            weekdayTemplates.values().forEach(this::validateTemplate);
+        }
+        Set<DayOfWeek> daysOff = request.getDaysOff() != null ? request.getDaysOff() : Set.of();
+        Set<LocalDate> holidays = request.getHolidays() != null ? request.getHolidays() : Set.of();
+
+        List<ScheduleDay> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DayTemplateDTO template = weekdayTemplates != null
+                    ? weekdayTemplates.getOrDefault(date.getDayOfWeek(), request.getDefaultTemplate())
+                    : request.getDefaultTemplate();
+
+            days.add(ScheduleDay.builder()
+                    .date(date)
+                    .isHoliday(holidays.contains(date) || daysOff.contains(date.getDayOfWeek()))
+                    .openingTime(template.getOpeningTime())
+                    .closingTime(template.getClosingTime())
+                    .maxCapacity(template.getMaxCapacity())
+                    .build());
+        }
+
+        Set<LocalDate> created = Set.copyOf(scheduleBatchRepository.insertDays(days));
+        invalidateCache(created);
+        created.forEach(date -> eventPublisher.publishEvent(new ScheduleChangedEvent(date)));
+
+        List<TimeSlot> slots = new ArrayList<>();
+        for (ScheduleDay day : days) {
+            if (day.getIsHoliday() || !created.contains(day.getDate())) {
+                continue;
+            }
+            for (int h = day.getOpeningTime().getHour(); h < 24 && LocalTime.of(h, 0).isBefore(day.getClosingTime()); h++) {
+                slots.add(TimeSlot.builder()
+                        .scheduleDate(day.getDate())
+                        .hour(LocalTime.of(h, 0))
+                        .build());
+            }
+        }
+        int slotsCreated = scheduleBatchRepository.insertTimeSlots(slots);
+
+        return new ScheduleGenerationResultDTO(created.size(), days.size() - created.size(), slotsCreated);
+    }
+
+    private void validateTemplate(DayTemplateDTO template) {
+        if (!template.getOpeningTime().isBefore(template.getClosingTime())) {
+            throw new IllegalArgumentException("Время открытия должно быть раньше времени закрытия");
+        }
+        if (template.getOpeningTime().getMinute() != 0 || template.getOpeningTime().getSecond() != 0) {
+            throw new IllegalArgumentException("Время открытия должно быть на начало часа");
+        }
+    }
+
+    /**
+     * Дни вставляются мимо JPA, поэтому ScheduleDayCacheInvalidator их не видит,
+     * а закэшированное отсутствие расписания нужно сбросить самим.
+     */
+    private void invalidateCache(Set<LocalDate> dates) {
+        dates.forEach(scheduleDayCache::invalidate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    dates.forEach(scheduleDayCache::invalidate);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.testwork.service;
+
+import com.example.testwork.DTO.SlotAvailabilityDeltaDTO;
+import com.example.testwork.DTO.TimeSlotResponseDTO;
+import com.example.testwork.event.SlotChangedEvent;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Рассылает подписчикам SSE изменения свободных мест по датам.
+ * Изменения копятся по датам и уходят одним событием раз в coalesce-интервал;
+ * ожидающий подписчик не держит поток, только открытое асинхронное соединение.
+ * Запись в соединения идет не на потоке @Scheduled, а на отдельном пуле из senders потоков
+ * с очередью send-queue задач: у каждого подписчика своя очередь событий, и медленный клиент
+ * задерживает только себя. Подписчик, у которого запись висит дольше send-timeout или скопилось
+ * больше MAX_QUEUED_EVENTS неотправленных событий, отключается.
+ */
+@Component
+public class SlotAvailabilityBroadcaster implements MetricsSource {
+
+    private static final int MAX_DATES_PER_SUBSCRIPTION = 31;
+    private static final int MAX_QUEUED_EVENTS = 64;
+
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor sender;
+
+    private final ConcurrentMap<LocalDate, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<LocalDate, Map<LocalTime, Integer>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder slowDisconnects = new LongAdder();
+
+    public SlotAvailabilityBroadcaster(ObjectMapper objectMapper,
+                                       @Value("${pool.availability-stream.timeout:30m}") Duration emitterTimeout,
+                                       @Value("${pool.availability-stream.send-timeout:5s}") Duration sendTimeout,
+                                       @Value("${pool.availability-stream.senders:4}") int senders,
+                                       @Value("${pool.availability-stream.send-queue:1024}") int sendQueue) {
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senders, senders, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueue), task -> {
+                    Thread thread = new Thread(task, "availability-stream-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public SseEmitter subscribe(Set<LocalDate> dates) {
+        if (dates.isEmpty() || dates.size() > MAX_DATES_PER_SUBSCRIPTION) {
+            throw new IllegalArgumentException("Подписка возможна на 1-" + MAX_DATES_PER_SUBSCRIPTION + " дат");
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Set<LocalDate> subscribed = Set.copyOf(dates);
+        Subscriber subscriber = new Subscriber(emitter, subscribed);
+        subscribed.forEach(date -> subscribers.computeIfAbsent(date, d -> ConcurrentHashMap.newKeySet()).add(subscriber));
+        connections.incrementAndGet();
+
+        emitter.onCompletion(subscriber::unsubscribe);
+        emitter.onTimeout(subscriber::unsubscribe);
+        emitter.onError(e -> subscriber.unsubscribe());
+
+        try {
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        if (!subscribers.containsKey(event.date())) {
+            return;
+        }
+        // compute держит блокировку ключа, поэтому изменение не потеряется при параллельном flush
+        pending.compute(event.date(), (date, deltas) -> {
+            Map<LocalTime, Integer> hours = deltas != null ? deltas : new HashMap<>();
+            hours.merge(event.hour(), -event.bookedDelta(), Integer::sum);
+            return hours;
+        });
+    }
+
+    /**
+     * Ставит накопленные изменения в очереди подписчиков, по одному событию на дату.
+     * Возвращает число разосланных дат.
+     */
+    @Scheduled(fixedDelayString = "${pool.availability-stream.coalesce-ms:250}")
+    public int flush() {
+        int dispatched = 0;
+        for (LocalDate date : List.copyOf(pending.keySet())) {
+            Map<LocalTime, Integer> deltas = pending.remove(date);
+            Set<Subscriber> dateSubscribers = subscribers.get(date);
+            if (deltas == null || dateSubscribers == null || dateSubscribers.isEmpty()) {
+                continue;
+            }
+
+            List<TimeSlotResponseDTO> slots = new ArrayList<>(deltas.size());
+            new TreeMap<>(deltas).forEach((hour, delta) -> {
+                if (delta != 0) {
+                    slots.add(new TimeSlotResponseDTO(hour.toString(), delta));
+                }
+            });
+            if (slots.isEmpty()) {
+                continue;
+            }
+
+            // сериализуем один раз на дату, а не на каждого подписчика
+            String payload = objectMapper.writeValueAsString(new SlotAvailabilityDeltaDTO(date, slots));
+            Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event()
+                    .name("availability")
+                    .data(payload, MediaType.APPLICATION_JSON)
+                    .build();
+            dateSubscribers.forEach(subscriber -> subscriber.enqueue(event));
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    /**
+     * Комментарий-пульс держит соединение открытым через прокси и выявляет отключившихся
+     * и зависших клиентов.
+     */
+    @Scheduled(fixedDelayString = "${pool.availability-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event().comment("ping").build();
+        Set<Subscriber> all = ConcurrentHashMap.newKeySet();
+        subscribers.values().forEach(all::addAll);
+        all.forEach(subscriber -> subscriber.enqueue(event));
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.values().forEach(dateSubscribers -> dateSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_availability_stream_connections", "gauge", "Open availability SSE connections");
+        writer.sample("pool_availability_stream_connections", "", connections.get());
+        writer.header("pool_availability_stream_events_total", "counter", "SSE events written to subscribers");
+        writer.sample("pool_availability_stream_events_total", "", eventsSent.sum());
+        writer.header("pool_availability_stream_failures_total", "counter", "SSE writes that closed the connection");
+        writer.sample("pool_availability_stream_failures_total", "", sendFailures.sum());
+        writer.header("pool_availability_stream_slow_disconnects_total", "counter",
+                "Subscribers disconnected for a stalled write or a full event queue");
+        writer.sample("pool_availability_stream_slow_disconnects_total", "", slowDisconnects.sum());
+        writer.header("pool_availability_stream_send_queue", "gauge", "Subscriber drains waiting for a sender thread");
+        writer.sample("pool_availability_stream_send_queue", "", sender.getQueue().size());
+    }
+
+    /**
+     * Подписчик со своей очередью событий; одновременно его очередь разбирает не больше одного потока,
+     * поэтому события приходят в порядке постановки.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<LocalDate> dates;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean completeAfterDrain;
+        private volatile long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter, Set<LocalDate> dates) {
+            this.emitter = emitter;
+            this.dates = dates;
+        }
+
+        private void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed.get()) {
+                return;
+            }
+            long started = sendStartedAt;
+            if (started != 0 && System.nanoTime() - started > sendTimeoutNanos) {
+                disconnectSlow();
+                return;
+            }
+            if (queued.incrementAndGet() > MAX_QUEUED_EVENTS) {
+                disconnectSlow();
+                return;
+            }
+            events.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (closed.get() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // пул занят: события остаются в очереди подписчика до следующего flush или пульса
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while (!closed.get() && (event = events.poll()) != null) {
+                    queued.decrementAndGet();
+                    sendStartedAt = System.nanoTime();
+                    try {
+                        emitter.send(event);
+                        eventsSent.increment();
+                    } catch (IOException | IllegalStateException e) {
+                        sendFailures.increment();
+                        unsubscribe();
+                        emitter.completeWithError(e);
+                        return;
+                    } finally {
+                        sendStartedAt = 0;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (completeAfterDrain && draining.compareAndSet(false, true)) {
+                emitter.complete();
+                return;
+            }
+            // событие могло прийти между последним poll и сбросом draining
+            if (!events.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void disconnectSlow() {
+            if (closed.get()) {
+                return;
+            }
+            slowDisconnects.increment();
+            unsubscribe();
+            // зависшая запись держит блокировку emitter, поэтому при активной отправке
+            // соединение закрывает поток отправки после ее завершения, а не поток @Scheduled
+            completeAfterDrain = true;
+            if (draining.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        private void unsubscribe() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            for (LocalDate date : dates) {
+                Set<Subscriber> dateSubscribers = subscribers.get(date);
+                if (dateSubscribers != null) {
+                    dateSubscribers.remove(this);
+                    if (dateSubscribers.isEmpty()) {
+                        subscribers.remove(date, dateSubscribers);
+                    }
+                }
+            }
+            events.clear();
+            connections.decrementAndGet();
+        }
+    }
+}
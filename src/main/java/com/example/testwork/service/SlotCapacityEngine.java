@@ -0,0 +1,340 @@
+package com.example.testwork.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import com.example.testwork.event.SlotCountersFlushedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Счетчики занятости слотов в памяти процесса.
+ * Решение о записи принимается без обращения к БД, а изменения booked_count
+ * сбрасываются в time_slots пачками по расписанию (write-behind).
+ * Рассчитан на один экземпляр приложения, включается через pool.capacity-engine.enabled.
+ * Счетчики восстанавливаются из БД после создания бинов, до запуска веб-сервера:
+ * иначе первые запросы успели бы создать счетчики дня, и восстановление затерло бы
+ * их вместе с еще не сброшенными изменениями.
+ */
+@Slf4j
+@Component
+public class SlotCapacityEngine implements SmartInitializingSingleton {
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private static final String SELECT_DAY_SLOTS =
+            "SELECT hour, booked_count FROM time_slots WHERE schedule_date = ?";
+
+    private static final String SELECT_FUTURE_SLOTS =
+            "SELECT schedule_date, hour, booked_count FROM time_slots WHERE schedule_date >= ?";
+
+    private static final String SELECT_FUTURE_ACTIVE_APPOINTMENTS =
+            "SELECT a.schedule_date, EXTRACT(HOUR FROM a.start_time)::int + g.h AS hour_index, COUNT(*) " +
+            "FROM appointments a " +
+            "CROSS JOIN LATERAL generate_series(0, COALESCE(a.duration_hours, 1) - 1) AS g(h) " +
+            "WHERE a.status = 'active' AND a.schedule_date >= ? " +
+            "GROUP BY a.schedule_date, hour_index";
+
+    private static final String UPSERT_BOOKED_COUNT =
+            "INSERT INTO time_slots (schedule_date, hour, booked_count) VALUES (?, ?, ?) " +
+            "ON CONFLICT (schedule_date, hour) " +
+            "DO UPDATE SET booked_count = GREATEST(COALESCE(time_slots.booked_count, 0) + ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final Map<LocalDate, DayCounters> days = new ConcurrentHashMap<>();
+    private final Set<LocalDate> dirtyDates = ConcurrentHashMap.newKeySet();
+
+    public SlotCapacityEngine(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${pool.capacity-engine.enabled:false}") boolean enabled,
+                              @Value("${pool.capacity-engine.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Занимает место в слоте, если есть свободная емкость.
+     * При откате текущей транзакции место освобождается, при фиксации изменение
+     * ставится в очередь на запись в time_slots.
+     */
+    public boolean tryReserve(LocalDate date, LocalTime hour, int capacity) {
+        return tryReserve(date, hour, 1, capacity);
+    }
+
+    /**
+     * Занимает место сразу в hours подряд идущих слотах: либо во всех, либо ни в одном.
+     */
+    public boolean tryReserve(LocalDate date, LocalTime hour, int hours, int capacity) {
+        DayCounters counters = counters(date);
+        int first = hour.getHour();
+        if (first + hours > HOURS_PER_DAY) {
+            return false;
+        }
+
+        for (int index = first; index < first + hours; index++) {
+            if (!tryIncrement(counters, index, capacity)) {
+                for (int taken = first; taken < index; taken++) {
+                    decrement(counters, taken);
+                }
+                return false;
+            }
+        }
+
+        afterTransaction(
+                () -> {
+                    for (int index = first; index < first + hours; index++) {
+                        enqueue(date, counters, index, 1);
+                    }
+                },
+                () -> {
+                    for (int index = first; index < first + hours; index++) {
+                        decrement(counters, index);
+                    }
+                });
+        return true;
+    }
+
+    /**
+     * Освобождает место в слоте после фиксации текущей транзакции.
+     */
+    public void release(LocalDate date, LocalTime hour) {
+        release(date, hour, 1);
+    }
+
+    /**
+     * Освобождает места в hours подряд идущих слотах после фиксации текущей транзакции.
+     */
+    public void release(LocalDate date, LocalTime hour, int hours) {
+        DayCounters counters = counters(date);
+        int first = hour.getHour();
+        int last = Math.min(first + hours, HOURS_PER_DAY);
+
+        afterTransaction(
+                () -> {
+                    for (int index = first; index < last; index++) {
+                        decrement(counters, index);
+                        enqueue(date, counters, index, -1);
+                    }
+                },
+                () -> { });
+    }
+
+    public int getBookedCount(LocalDate date, LocalTime hour) {
+        return counters(date).booked.get(hour.getHour());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        Map<LocalDate, int[]> stored = new HashMap<>();
+        Map<LocalDate, int[]> actual = new HashMap<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query(SELECT_FUTURE_SLOTS, (RowCallbackHandler) rs -> {
+                LocalDate date = rs.getObject(1, LocalDate.class);
+                int index = rs.getObject(2, LocalTime.class).getHour();
+                stored.computeIfAbsent(date, d -> new int[HOURS_PER_DAY])[index] = rs.getInt(3);
+            }, today);
+
+            jdbcTemplate.query(SELECT_FUTURE_ACTIVE_APPOINTMENTS, (RowCallbackHandler) rs -> {
+                LocalDate date = rs.getObject(1, LocalDate.class);
+                int index = rs.getInt(2);
+                if (index < HOURS_PER_DAY) {
+                    actual.computeIfAbsent(date, d -> new int[HOURS_PER_DAY])[index] = rs.getInt(3);
+                }
+            }, today);
+        });
+
+        Set<LocalDate> dates = new HashSet<>(stored.keySet());
+        dates.addAll(actual.keySet());
+
+        int corrected = 0;
+        for (LocalDate date : dates) {
+            int[] storedCounts = stored.getOrDefault(date, new int[HOURS_PER_DAY]);
+            int[] actualCounts = actual.getOrDefault(date, new int[HOURS_PER_DAY]);
+            DayCounters counters = new DayCounters();
+
+            for (int i = 0; i < HOURS_PER_DAY; i++) {
+                counters.booked.set(i, actualCounts[i]);
+                int drift = actualCounts[i] - storedCounts[i];
+                if (drift != 0) {
+                    counters.pending.set(i, drift);
+                    dirtyDates.add(date);
+                    corrected++;
+                }
+            }
+            days.put(date, counters);
+        }
+
+        log.info("Slot capacity engine rebuilt: {} days loaded, {} slots queued for correction",
+                days.size(), corrected);
+    }
+
+    @Scheduled(fixedDelayString = "${pool.capacity-engine.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled || dirtyDates.isEmpty()) {
+            return;
+        }
+
+        List<PendingDelta> deltas = drainPending();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPSERT_BOOKED_COUNT, deltas, batchSize, (ps, delta) -> {
+                        ps.setObject(1, delta.date());
+                        ps.setObject(2, LocalTime.of(delta.index(), 0));
+                        ps.setInt(3, Math.max(delta.delta(), 0));
+                        ps.setInt(4, delta.delta());
+                    }));
+        } catch (DataAccessException e) {
+            log.warn("Failed to flush {} slot counters, will retry", deltas.size(), e);
+            deltas.forEach(delta -> enqueue(delta.date(), counters(delta.date()), delta.index(), delta.delta()));
+            return;
+        }
+
+        Set<LocalDate> flushed = new HashSet<>();
+        deltas.forEach(delta -> flushed.add(delta.date()));
+        eventPublisher.publishEvent(new SlotCountersFlushedEvent(flushed));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private List<PendingDelta> drainPending() {
+        List<PendingDelta> deltas = new ArrayList<>();
+        Iterator<LocalDate> iterator = dirtyDates.iterator();
+
+        while (iterator.hasNext()) {
+            LocalDate date = iterator.next();
+            iterator.remove();
+
+            DayCounters counters = days.get(date);
+            if (counters == null) {
+                continue;
+            }
+            for (int i = 0; i < HOURS_PER_DAY; i++) {
+                int delta = counters.pending.getAndSet(i, 0);
+                if (delta != 0) {
+                    deltas.add(new PendingDelta(date, i, delta));
+                }
+            }
+        }
+
+        return deltas;
+    }
+
+    private DayCounters counters(LocalDate date) {
+        DayCounters counters = days.get(date);
+        if (counters != null) {
+            return counters;
+        }
+
+        DayCounters loaded = new DayCounters();
+        jdbcTemplate.query(SELECT_DAY_SLOTS, (RowCallbackHandler) rs -> {
+            int index = rs.getObject(1, LocalTime.class).getHour();
+            loaded.booked.set(index, rs.getInt(2));
+        }, date);
+
+        DayCounters existing = days.putIfAbsent(date, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private boolean tryIncrement(DayCounters counters, int index, int capacity) {
+        while (true) {
+            int current = counters.booked.get(index);
+            if (current >= capacity) {
+                return false;
+            }
+            if (counters.booked.compareAndSet(index, current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void enqueue(LocalDate date, DayCounters counters, int index, int delta) {
+        counters.pending.addAndGet(index, delta);
+        dirtyDates.add(date);
+    }
+
+    private void decrement(DayCounters counters, int index) {
+        while (true) {
+            int current = counters.booked.get(index);
+            if (current <= 0 || counters.booked.compareAndSet(index, current, current - 1)) {
+                return;
+            }
+        }
+    }
+
+    private void afterTransaction(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private static final class DayCounters {
+        private final AtomicIntegerArray booked = new AtomicIntegerArray(HOURS_PER_DAY);
+        private final AtomicIntegerArray pending = new AtomicIntegerArray(HOURS_PER_DAY);
+    }
+
+    private record PendingDelta(LocalDate date, int index, int delta) {
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.testwork.service;
+
+import com.example.testwork.DTO.ReconciliationResultDTO;
+import com.example.testwork.DTO.SlotCorrectionDTO;
+import com.example.testwork.event.SlotsReconciledEvent;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сверка time_slots.booked_count с активными записями.
+ * Период делится на отрезки по chunk-days дней, отрезки обрабатываются параллельно
+ * на пуле из parallelism потоков: один сгруппированный запрос находит только расходящиеся
+ * слоты, затем они исправляются одной пачкой. Исправление условное — если счетчик
+ * успел измениться после чтения, слот пропускается и попадает в skipped.
+ * Прошедшие дни не сверяются: их записи завершены или перенесены в архив.
+ * При включенном pool.capacity-engine счетчики сверяет сам движок при запуске.
+ */
+@Slf4j
+@Component
+public class SlotReconciliationService implements MetricsSource {
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private static final String SELECT_DRIFTED_SLOTS =
+            "SELECT ts.schedule_date, ts.hour, COALESCE(ts.booked_count, 0), COALESCE(a.booked, 0) " +
+            "FROM time_slots ts " +
+            "LEFT JOIN (" +
+            "SELECT a.schedule_date, a.start_time + make_interval(hours => g.h) AS hour, COUNT(*) AS booked " +
+            "FROM appointments a " +
+            "CROSS JOIN LATERAL generate_series(0, COALESCE(a.duration_hours, 1) - 1) AS g(h) " +
+            "WHERE a.status = 'active' AND a.schedule_date BETWEEN ? AND ? " +
+            "GROUP BY 1, 2) a " +
+            "ON a.schedule_date = ts.schedule_date AND a.hour = ts.hour " +
+            "WHERE ts.schedule_date BETWEEN ? AND ? " +
+            "AND COALESCE(ts.booked_count, 0) <> COALESCE(a.booked, 0) " +
+            "ORDER BY ts.schedule_date, ts.hour";
+
+    private static final String UPDATE_BOOKED_COUNT =
+            "UPDATE time_slots SET booked_count = ? " +
+            "WHERE schedule_date = ? AND hour = ? AND COALESCE(booked_count, 0) = ?";
+
+    private static final RowMapper<SlotCorrectionDTO> CORRECTION_MAPPER = (rs, rowNum) -> new SlotCorrectionDTO(
+            rs.getObject(1, LocalDate.class),
+            rs.getObject(2, LocalTime.class),
+            rs.getInt(3),
+            rs.getInt(4));
+
+    private static final Comparator<SlotCorrectionDTO> BY_SLOT = Comparator
+            .comparing(SlotCorrectionDTO::getDate)
+            .thenComparing(SlotCorrectionDTO::getHour);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SlotCapacityEngine slotCapacityEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkDays;
+    private final int daysAhead;
+    private final ExecutorService executor;
+
+    private final LongAdder corrections = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public SlotReconciliationService(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     SlotCapacityEngine slotCapacityEngine,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${pool.reconciliation.chunk-days:7}") int chunkDays,
+                                     @Value("${pool.reconciliation.parallelism:4}") int parallelism,
+                                     @Value("${pool.reconciliation.days-ahead:60}") int daysAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.slotCapacityEngine = slotCapacityEngine;
+        this.eventPublisher = eventPublisher;
+        this.chunkDays = chunkDays;
+        this.daysAhead = daysAhead;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "slot-reconciliation-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(cron = "${pool.reconciliation.cron:0 45 3 * * *}")
+    public void reconcileUpcoming() {
+        if (slotCapacityEngine.isEnabled()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        ReconciliationResultDTO result = reconcile(today, today.plusDays(daysAhead));
+        if (!result.getCorrected().isEmpty() || !result.getSkipped().isEmpty()) {
+            log.warn("Slot counters reconciled: {} corrected, {} skipped as concurrently changed",
+                    result.getCorrected().size(), result.getSkipped().size());
+        }
+    }
+
+    public ReconciliationResultDTO reconcile(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало периода позже его окончания");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Период не может быть длиннее " + MAX_RANGE_DAYS + " дней");
+        }
+        if (from.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Сверка возможна только для текущих и будущих дат");
+        }
+        if (slotCapacityEngine.isEnabled()) {
+            throw new IllegalStateException("Сверка недоступна при включенном pool.capacity-engine");
+        }
+
+        List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(chunkDays)) {
+            LocalDate chunkFrom = start;
+            LocalDate chunkTo = start.plusDays(chunkDays - 1L).isAfter(to) ? to : start.plusDays(chunkDays - 1L);
+            chunks.add(CompletableFuture.supplyAsync(() -> reconcileChunk(chunkFrom, chunkTo), executor));
+        }
+
+        List<SlotCorrectionDTO> corrected = new ArrayList<>();
+        List<SlotCorrectionDTO> skipped = new ArrayList<>();
+        try {
+            for (CompletableFuture<ChunkResult> chunk : chunks) {
+                ChunkResult result = chunk.join();
+                corrected.addAll(result.corrected());
+                skipped.addAll(result.skipped());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        corrected.sort(BY_SLOT);
+        skipped.sort(BY_SLOT);
+
+        if (!corrected.isEmpty()) {
+            Set<LocalDate> dates = new HashSet<>();
+            corrected.forEach(correction -> dates.add(correction.getDate()));
+            eventPublisher.publishEvent(new SlotsReconciledEvent(dates));
+        }
+        return new ReconciliationResultDTO(chunks.size(), corrected, skipped);
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_reconciliation_slots_total", "counter", "Drifted slot counters found by reconciliation");
+        writer.sample("pool_reconciliation_slots_total", "result=\"corrected\"", corrections.sum());
+        writer.sample("pool_reconciliation_slots_total", "result=\"skipped\"", conflicts.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ChunkResult reconcileChunk(LocalDate from, LocalDate to) {
+        return transactionTemplate.execute(status -> {
+            List<SlotCorrectionDTO> drifted = jdbcTemplate.query(SELECT_DRIFTED_SLOTS, CORRECTION_MAPPER,
+                    from, to, from, to);
+            if (drifted.isEmpty()) {
+                return new ChunkResult(List.of(), List.of());
+            }
+
+            List<Object[]> updates = new ArrayList<>(drifted.size());
+            for (SlotCorrectionDTO slot : drifted) {
+                updates.add(new Object[]{slot.getActualCount(), slot.getDate(), slot.getHour(), slot.getStoredCount()});
+            }
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_BOOKED_COUNT, updates);
+
+            List<SlotCorrectionDTO> corrected = new ArrayList<>();
+            List<SlotCorrectionDTO> skipped = new ArrayList<>();
+            for (int i = 0; i < drifted.size(); i++) {
+                (updated[i] != 0 ? corrected : skipped).add(drifted.get(i));
+            }
+            corrections.add(corrected.size());
+            conflicts.add(skipped.size());
+            return new ChunkResult(corrected, skipped);
+        });
+    }
+
+    private record ChunkResult(List<SlotCorrectionDTO> corrected, List<SlotCorrectionDTO> skipped) {
+    }
+}
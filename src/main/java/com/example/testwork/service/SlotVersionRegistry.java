@@ -0,0 +1,107 @@
+package com.example.testwork.service;
+
+import com.example.testwork.event.ScheduleChangedEvent;
+import com.example.testwork.event.SlotChangedEvent;
+import com.example.testwork.event.SlotCountersFlushedEvent;
+import com.example.testwork.event.SlotsReconciledEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версии дат для ETag ответов со слотами. Версия растет после фиксации каждой записи,
+ * отмены и изменения расписания. Эпоха меняется при перезапуске, поэтому ETag,
+ * выданные до него, перестают совпадать.
+ */
+@Component
+public class SlotVersionRegistry {
+
+    private static final int MAX_RANGE_DAYS = 31;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ConcurrentMap<LocalDate, Version> versions = new ConcurrentHashMap<>();
+    private final long replicaLagNanos;
+
+    public SlotVersionRegistry(@Value("${pool.datasource.replica.max-lag:5s}") Duration replicaLag) {
+        this.replicaLagNanos = replicaLag.toNanos();
+    }
+
+    public long version(LocalDate date) {
+        Version version = versions.get(date);
+        return version != null ? version.counter.get() : 0;
+    }
+
+    /**
+     * Дата менялась недавно, и реплика может еще не содержать изменение: такой ответ
+     * нельзя читать с реплики, иначе под новым ETag закэшируется старое состояние.
+     */
+    public boolean isRecentlyChanged(LocalDate from, LocalDate to) {
+        long now = System.nanoTime();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Version version = versions.get(date);
+            if (version != null && now - version.changedAt < replicaLagNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String etag(LocalDate date) {
+        return "\"" + epoch + "-" + version(date) + "\"";
+    }
+
+    /**
+     * ETag для периода или null, если период некорректный и запрос все равно будет отклонен.
+     */
+    public String etag(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            return null;
+        }
+        // версии только растут, поэтому сумма с положительными весами меняется при любом изменении
+        long hash = 1;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            hash = 31 * hash + version(date);
+        }
+        return "\"" + epoch + "-" + from + "-" + to + "-" + Long.toString(hash, 36) + "\"";
+    }
+
+    public void bump(LocalDate date) {
+        Version version = versions.computeIfAbsent(date, d -> new Version());
+        version.changedAt = System.nanoTime();
+        version.counter.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        bump(event.date());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        bump(event.date());
+    }
+
+    @EventListener
+    public void onCountersFlushed(SlotCountersFlushedEvent event) {
+        event.dates().forEach(this::bump);
+    }
+
+    @EventListener
+    public void onSlotsReconciled(SlotsReconciledEvent event) {
+        event.dates().forEach(this::bump);
+    }
+
+    private static final class Version {
+        private final AtomicLong counter = new AtomicLong();
+        private volatile long changedAt;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.testwork.service;
+
+import com.example.testwork.cache.ScheduleDayCache;
+import com.example.testwork.config.CompactSlotsHttpMessageConverter;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.entity.TimeSlot;
+import com.example.testwork.metrics.MetricsSource;
+import com.example.testwork.metrics.MetricsWriter;
+import com.example.testwork.repository.ScheduleDayRepository;
+import com.example.testwork.repository.TimeSlotRepository;
+import com.example.testwork.service.DayOccupancyCache.CachedDay;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Прогрев при запуске: расписание и занятость слотов на days дней вперед читаются
+ * двумя запросами; расписание кладется в ScheduleDayCache для бронирований, а занятость
+ * каждого дня — в DayOccupancyCache, из которого отвечают /all и /available, пока версия
+ * даты не изменится. Ответ по первому рабочему дню сериализуется в JSON и компактный формат,
+ * а запрос /available выполняется один раз, чтобы построить сериализаторы Jackson и план Hibernate.
+ * Выполняется как ApplicationRunner, поэтому Spring Boot переводит readiness
+ * в ACCEPTING_TRAFFIC только после окончания прогрева. Ошибка прогрева не мешает запуску.
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements ApplicationRunner, MetricsSource {
+
+    private final ScheduleDayRepository scheduleDayRepository;
+    private final TimeSlotRepository timeSlotRepository;
+    private final ScheduleDayCache scheduleDayCache;
+    private final DayOccupancyCache dayOccupancyCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int days;
+
+    private volatile boolean finished;
+    private volatile long durationMs;
+    private volatile int scheduleDays;
+    private volatile int timeSlots;
+
+    public StartupWarmup(ScheduleDayRepository scheduleDayRepository,
+                         TimeSlotRepository timeSlotRepository,
+                         ScheduleDayCache scheduleDayCache,
+                         DayOccupancyCache dayOccupancyCache,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${pool.warmup.enabled:true}") boolean enabled,
+                         @Value("${pool.warmup.days:14}") int days) {
+        this.scheduleDayRepository = scheduleDayRepository;
+        this.timeSlotRepository = timeSlotRepository;
+        this.scheduleDayCache = scheduleDayCache;
+        this.dayOccupancyCache = dayOccupancyCache;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.days = days;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || days <= 0) {
+            finished = true;
+            return;
+        }
+
+        long started = System.nanoTime();
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(days - 1L);
+        try {
+            transactionTemplate.executeWithoutResult(status -> warmUp(from, to));
+        } catch (RuntimeException e) {
+            log.warn("Startup warm-up failed, continuing with cold caches", e);
+        }
+        durationMs = (System.nanoTime() - started) / 1_000_000;
+        finished = true;
+
+        log.info("Startup warm-up finished in {} ms: {} schedule days, {} time slots ({} - {})",
+                durationMs, scheduleDays, timeSlots, from, to);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void writeMetrics(MetricsWriter writer) {
+        writer.header("pool_warmup_duration_seconds", "gauge", "Startup warm-up duration");
+        writer.sample("pool_warmup_duration_seconds", "", durationMs / 1000.0);
+        writer.header("pool_warmup_rows", "gauge", "Rows preloaded by the startup warm-up");
+        writer.sample("pool_warmup_rows", "table=\"schedule_days\"", scheduleDays);
+        writer.sample("pool_warmup_rows", "table=\"time_slots\"", timeSlots);
+    }
+
+    private void warmUp(LocalDate from, LocalDate to) {
+        // версии и поколение читаются до запросов, чтобы изменение во время прогрева не осталось в кэше
+        long generation = scheduleDayCache.generation();
+        Map<LocalDate, Long> versions = new HashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            versions.put(date, dayOccupancyCache.version(date));
+        }
+
+        List<ScheduleDay> schedules = scheduleDayRepository.findByDateBetweenOrderByDate(from, to);
+        schedules.forEach(schedule -> scheduleDayCache.put(schedule, generation));
+        scheduleDays = schedules.size();
+        if (schedules.isEmpty()) {
+            return;
+        }
+
+        List<TimeSlot> slots = timeSlotRepository.findByScheduleDateBetween(from, to);
+        timeSlots = slots.size();
+        Map<LocalDate, List<TimeSlot>> slotsByDate = slots.stream()
+                .collect(Collectors.groupingBy(TimeSlot::getScheduleDate));
+
+        DayOccupancy firstWorkingDay = null;
+        LocalDate firstWorkingDate = null;
+        for (ScheduleDay schedule : schedules) {
+            boolean holiday = Boolean.TRUE.equals(schedule.getIsHoliday());
+            DayOccupancy occupancy = DayOccupancy.of(schedule, slotsByDate.getOrDefault(schedule.getDate(), List.of()));
+            dayOccupancyCache.put(schedule.getDate(), new CachedDay(holiday, occupancy), versions.get(schedule.getDate()));
+            if (!holiday && firstWorkingDay == null) {
+                firstWorkingDay = occupancy;
+                firstWorkingDate = schedule.getDate();
+            }
+        }
+
+        if (firstWorkingDay != null) {
+            objectMapper.writeValueAsBytes(firstWorkingDay.toBookedSlots());
+            objectMapper.writeValueAsBytes(firstWorkingDay.toAvailableSlots());
+            objectMapper.writeValueAsBytes(firstWorkingDay.toCompactAvailable());
+            CompactSlotsHttpMessageConverter.encode(firstWorkingDay.toCompactAvailable());
+            // План запроса /available по одному дню строится Hibernate при первом вызове
+            scheduleDayRepository.findDaySlots(firstWorkingDate);
+        }
+    }
+}
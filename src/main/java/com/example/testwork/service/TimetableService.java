@@ -1,79 +1,124 @@
 package com.example.testwork.service;
 
 import com.example.testwork.DTO.AppointmentDTO;
+import com.example.testwork.DTO.BatchReservationResultDTO;
+import com.example.testwork.DTO.CompactSlotsDTO;
 import com.example.testwork.DTO.TimeSlotResponseDTO;
+import com.example.testwork.cache.ScheduleDayCache;
 import com.example.testwork.entity.Appointment;
 import com.example.testwork.entity.Client;
 import com.example.testwork.entity.TimeSlot;
 import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.event.SlotChangedEvent;
+import com.example.testwork.exception.BookingRejectedException;
+import com.example.testwork.metrics.RejectionReason;
+import com.example.testwork.repository.AppointmentBatchRepository;
 import com.example.testwork.repository.AppointmentRepository;
 import com.example.testwork.repository.ClientRepository;
+import com.example.testwork.repository.DaySlotView;
 import com.example.testwork.repository.ScheduleDayRepository;
 import com.example.testwork.repository.TimeSlotRepository;
-import jakarta.transaction.Transactional;
+import com.example.testwork.service.DayOccupancyCache.CachedDay;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TimetableService {
 
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final int MAX_RANGE_DAYS = 31;
+
     private final TimeSlotRepository timeSlotRepository;
     private final ScheduleDayRepository scheduleDayRepository;
     private final ClientRepository clientRepository;
     private final AppointmentRepository appointmentRepository;
-
+    private final SlotCapacityEngine slotCapacityEngine;
+    private final AppointmentBatchRepository appointmentBatchRepository;
+    private final Validator validator;
+    private final ScheduleDayCache scheduleDayCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DayOccupancyCache dayOccupancyCache;
+
+    @Transactional(readOnly = true)
     public List<TimeSlotResponseDTO> getAllBookedSlots(LocalDate date) {
-        Optional<ScheduleDay> scheduleOpt = scheduleDayRepository.findByDate(date);
+        CachedDay day = dayOccupancyCache.get(date, this::loadBookedDay);
 
-        if (scheduleOpt.isEmpty()) {
+        if (day == null) {
             return new ArrayList<>();
         }
 
-        ScheduleDay schedule = scheduleOpt.get();
-        List<TimeSlot> timeSlots = timeSlotRepository.findByScheduleDate(date);
-
-        return generateWorkingHours(schedule).stream()
-                .map(hour -> {
-                    TimeSlot slot = findTimeSlot(timeSlots, hour);
-                    return new TimeSlotResponseDTO(
-                            hour.toString(),
-                            slot != null ? slot.getBookedCount() : 0
-                    );
-                })
-                .collect(Collectors.toList());
+        return day.occupancy().toBookedSlots();
     }
 
-    public List<TimeSlotResponseDTO> getAvailableSlots(LocalDate date) {
-        ScheduleDay schedule = scheduleDayRepository.findByDate(date)
-                .orElseThrow(() -> new IllegalArgumentException("На эту дату нет расписания"));
+    /**
+     * Занятые места дня в компактном виде; без расписания — пустой массив.
+     */
+    @Transactional(readOnly = true)
+    public CompactSlotsDTO getAllBookedSlotsCompact(LocalDate date) {
+        CachedDay day = dayOccupancyCache.get(date, this::loadBookedDay);
 
-        if (schedule.getIsHoliday()) {
-            throw new IllegalArgumentException("Это праздничный день");
+        if (day == null) {
+            return new CompactSlotsDTO(null, 60, new int[0]);
         }
 
-        List<TimeSlot> timeSlots = timeSlotRepository.findByScheduleDate(date);
-        List<TimeSlotResponseDTO> availableSlots = new ArrayList<>();
+        return day.occupancy().toCompactBooked();
+    }
 
-        for (LocalTime hour : generateWorkingHours(schedule)) {
-            TimeSlot slot = findTimeSlot(timeSlots, hour);
-            int bookedCount = slot != null ? slot.getBookedCount() : 0;
-            int available = schedule.getMaxCapacity() - bookedCount;
+    @Transactional(readOnly = true)
+    public Map<LocalDate, List<TimeSlotResponseDTO>> getAllBookedSlots(LocalDate from, LocalDate to) {
+        List<ScheduleDay> schedules = findSchedulesInRange(from, to);
+        Map<LocalDate, List<TimeSlot>> timeSlots = findTimeSlotsInRange(schedules, from, to);
 
-            if (available > 0) {
-                availableSlots.add(new TimeSlotResponseDTO(hour.toString(), available));
-            }
+        Map<LocalDate, List<TimeSlotResponseDTO>> result = new LinkedHashMap<>();
+        for (ScheduleDay schedule : schedules) {
+            List<TimeSlot> daySlots = timeSlots.getOrDefault(schedule.getDate(), List.of());
+            result.put(schedule.getDate(), DayOccupancy.of(schedule, daySlots).toBookedSlots());
         }
+        return result;
+    }
 
-        return availableSlots;
+    @Transactional(readOnly = true)
+    public List<TimeSlotResponseDTO> getAvailableSlots(LocalDate date) {
+        return availableOccupancy(date).toAvailableSlots();
+    }
+
+    @Transactional(readOnly = true)
+    public CompactSlotsDTO getAvailableSlotsCompact(LocalDate date) {
+        return availableOccupancy(date).toCompactAvailable();
+    }
+
+    @Transactional(readOnly = true)
+    public Map<LocalDate, List<TimeSlotResponseDTO>> getAvailableSlots(LocalDate from, LocalDate to) {
+        List<ScheduleDay> schedules = findSchedulesInRange(from, to);
+        Map<LocalDate, List<TimeSlot>> timeSlots = findTimeSlotsInRange(schedules, from, to);
+
+        Map<LocalDate, List<TimeSlotResponseDTO>> result = new LinkedHashMap<>();
+        for (ScheduleDay schedule : schedules) {
+            List<TimeSlot> daySlots = timeSlots.getOrDefault(schedule.getDate(), List.of());
+            result.put(schedule.getDate(), schedule.getIsHoliday()
+                    ? List.of()
+                    : DayOccupancy.of(schedule, daySlots).toAvailableSlots());
+        }
+        return result;
     }
 
     @Transactional
@@ -83,86 +128,332 @@ public class TimetableService {
         LocalTime hour = datetime.toLocalTime().withMinute(0).withSecond(0).withNano(0);
 
         if (!datetime.toLocalTime().equals(hour)) {
-            throw new IllegalArgumentException("Запись возможна только на начало часа");
+            throw new BookingRejectedException(RejectionReason.INVALID_TIME, "Запись возможна только на начало часа");
         }
 
         Client client = clientRepository.findById(appointmentDTO.getClientId())
-                .orElseThrow(() -> new IllegalArgumentException("Клиент не найден"));
+                .orElseThrow(() -> new BookingRejectedException(RejectionReason.CLIENT_NOT_FOUND, "Клиент не найден"));
 
-        ScheduleDay schedule = scheduleDayRepository.findByDate(date)
-                .orElseThrow(() -> new IllegalArgumentException("На эту дату нет расписания"));
+        ScheduleDay schedule = scheduleDayCache.findByDate(date)
+                .orElseThrow(() -> new BookingRejectedException(RejectionReason.NO_SCHEDULE, "На эту дату нет расписания"));
 
         if (schedule.getIsHoliday()) {
-            throw new IllegalArgumentException("Это праздничный день");
+            throw new BookingRejectedException(RejectionReason.HOLIDAY, "Это праздничный день");
         }
 
-        if (!isWithinWorkingHours(hour, schedule)) {
-            throw new IllegalArgumentException("Вне рабочего времени");
+        int hours = durationOf(appointmentDTO);
+        if (!isWithinWorkingHours(hour, hours, schedule)) {
+            throw new BookingRejectedException(RejectionReason.OUTSIDE_WORKING_HOURS, "Вне рабочего времени");
         }
 
         if (appointmentRepository.findActiveByClientAndDate(client.getId(), date).isPresent()) {
-            throw new IllegalArgumentException("У клиента уже есть запись на этот день");
+            throw new BookingRejectedException(RejectionReason.DUPLICATE_BOOKING, "У клиента уже есть запись на этот день");
         }
 
         int count = schedule.getMaxCapacity();
         if(count > 10) {
-            throw new IllegalArgumentException("Нет свободных мест на это время");
+            throw new BookingRejectedException(RejectionReason.CAPACITY_FULL, "Нет свободных мест на это время");
         }
 
         Appointment appointment = Appointment.builder()
                 .client(client)
                 .scheduleDate(date)
                 .startTime(hour)
+                .durationHours(hours)
                 .status("active")
                 .build();
 
-        timeSlotRepository.incrementBookedCount(date, hour, count);
+        if (!reserveSlots(date, hour, hours, count)) {
+            throw new BookingRejectedException(RejectionReason.CAPACITY_FULL, "Нет свободных мест на это время");
+        }
         appointmentRepository.save(appointment);
+        publishSlotChange(date, hour, hours, 1);
 
         return appointment.getId();
     }
 
+    /**
+     * Проверка размера пачки; вызывается и до admission, чтобы не тратить токены на заведомо отклоненный запрос.
+     */
+    public void checkBatchSize(List<AppointmentDTO> appointmentDTOs) {
+        if (appointmentDTOs.isEmpty()) {
+            throw new IllegalArgumentException("Список записей пуст");
+        }
+        if (appointmentDTOs.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Слишком много записей в одном запросе");
+        }
+    }
+
+    @Transactional
+    public List<BatchReservationResultDTO> reserveAppointments(List<AppointmentDTO> appointmentDTOs) {
+        checkBatchSize(appointmentDTOs);
+
+        Set<Long> clientIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (AppointmentDTO dto : appointmentDTOs) {
+            if (dto.getClientId() != null) {
+                clientIds.add(dto.getClientId());
+            }
+            if (dto.getDatetime() != null) {
+                dates.add(dto.getDatetime().toLocalDate());
+            }
+        }
+
+        Map<Long, Client> clients = clientIds.isEmpty() ? Map.of() :
+                clientRepository.findAllById(clientIds).stream()
+                        .collect(Collectors.toMap(Client::getId, Function.identity()));
+
+        Map<LocalDate, ScheduleDay> schedules = dates.isEmpty() ? Map.of() :
+                scheduleDayRepository.findByDateIn(dates).stream()
+                        .collect(Collectors.toMap(ScheduleDay::getDate, Function.identity()));
+
+        Set<ClientDay> bookedDays = new HashSet<>();
+        if (!clientIds.isEmpty() && !dates.isEmpty()) {
+            appointmentRepository.findActiveByClientsAndDates(clientIds, dates).forEach(appointment ->
+                    bookedDays.add(new ClientDay(appointment.getClient().getId(), appointment.getScheduleDate())));
+        }
+
+        int size = appointmentDTOs.size();
+        String[] errors = new String[size];
+        Appointment[] appointments = new Appointment[size];
+        for (int i = 0; i < size; i++) {
+            try {
+                appointments[i] = prepareBatchAppointment(appointmentDTOs.get(i), clients, schedules, bookedDays);
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (appointments[i] != null) {
+                candidates.add(i);
+            }
+        }
+
+        List<Appointment> accepted = new ArrayList<>();
+        if (slotCapacityEngine.isEnabled()) {
+            for (int i : candidates) {
+                Appointment appointment = appointments[i];
+                if (slotCapacityEngine.tryReserve(appointment.getScheduleDate(), appointment.getStartTime(),
+                        appointment.getDurationHours(), schedules.get(appointment.getScheduleDate()).getMaxCapacity())) {
+                    accepted.add(appointment);
+                } else {
+                    errors[i] = "Нет свободных мест на это время";
+                }
+            }
+        } else if (!candidates.isEmpty()) {
+            List<Appointment> pending = candidates.stream().map(i -> appointments[i]).toList();
+            int[] updated = appointmentBatchRepository.incrementBookedCounts(pending, schedules);
+            for (int k = 0; k < updated.length; k++) {
+                if (updated[k] > 0) {
+                    accepted.add(pending.get(k));
+                } else {
+                    errors[candidates.get(k)] = "Нет свободных мест на это время";
+                }
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            Set<UUID> inserted = appointmentBatchRepository.insertAll(accepted);
+            for (int i : candidates) {
+                Appointment appointment = appointments[i];
+                if (errors[i] != null) {
+                    continue;
+                }
+                if (inserted.contains(appointment.getId())) {
+                    publishSlotChange(appointment.getScheduleDate(), appointment.getStartTime(),
+                            appointment.getDurationHours(), 1);
+                } else {
+                    // Параллельная запись того же клиента на этот день успела раньше
+                    releaseSlots(appointment.getScheduleDate(), appointment.getStartTime(),
+                            appointment.getDurationHours());
+                    errors[i] = "У клиента уже есть запись на этот день";
+                }
+            }
+        }
+
+        List<BatchReservationResultDTO> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(errors[i] != null
+                    ? new BatchReservationResultDTO(i, null, errors[i])
+                    : new BatchReservationResultDTO(i, appointments[i].getId(), null));
+        }
+        return results;
+    }
+
     @Transactional
     public boolean cancelAppointment(Long clientId, UUID orderId) {
         Appointment appointment = appointmentRepository
                 .findByIdAndClientId(orderId, clientId)
-                .orElseThrow(() -> new IllegalArgumentException("Запись не найдена"));
+                .orElseThrow(() -> new BookingRejectedException(RejectionReason.APPOINTMENT_NOT_FOUND, "Запись не найдена"));
 
         if (!"active".equals(appointment.getStatus())) {
-            throw new IllegalArgumentException("Запись уже отменена");
+            throw new BookingRejectedException(RejectionReason.ALREADY_CANCELLED, "Запись уже отменена");
         }
 
         appointment.setStatus("cancelled");
         appointmentRepository.save(appointment);
 
-        timeSlotRepository.decrementBookedCount(
-                appointment.getScheduleDate(),
-                appointment.getStartTime());
+        int hours = appointment.getDurationHours() != null ? appointment.getDurationHours() : 1;
+        releaseSlots(appointment.getScheduleDate(), appointment.getStartTime(), hours);
+        publishSlotChange(appointment.getScheduleDate(), appointment.getStartTime(), hours, -1);
 
         return true;
     }
 
-    private List<LocalTime> generateWorkingHours(ScheduleDay schedule) {
-        List<LocalTime> hours = new ArrayList<>();
-        LocalTime current = schedule.getOpeningTime();
+    private Appointment prepareBatchAppointment(AppointmentDTO appointmentDTO,
+                                                Map<Long, Client> clients,
+                                                Map<LocalDate, ScheduleDay> schedules,
+                                                Set<ClientDay> bookedDays) {
+        Set<ConstraintViolation<AppointmentDTO>> violations = validator.validate(appointmentDTO);
+        if (!violations.isEmpty()) {
+            String message = violations.iterator().next().getMessage();
+            throw new BookingRejectedException(RejectionReason.INVALID_REQUEST, message);
+        }
+
+        LocalDateTime datetime = appointmentDTO.getDatetime();
+        LocalDate date = datetime.toLocalDate();
+        LocalTime hour = datetime.toLocalTime().withMinute(0).withSecond(0).withNano(0);
 
-        while (current.isBefore(schedule.getClosingTime())) {
-            hours.add(current);
-            current = current.plusHours(1);
+        if (!datetime.toLocalTime().equals(hour)) {
+            throw new BookingRejectedException(RejectionReason.INVALID_TIME, "Запись возможна только на начало часа");
         }
 
-        return hours;
+        Client client = clients.get(appointmentDTO.getClientId());
+        if (client == null) {
+            throw new BookingRejectedException(RejectionReason.CLIENT_NOT_FOUND, "Клиент не найден");
+        }
+
+        ScheduleDay schedule = schedules.get(date);
+        if (schedule == null) {
+            throw new BookingRejectedException(RejectionReason.NO_SCHEDULE, "На эту дату нет расписания");
+        }
+
+        if (schedule.getIsHoliday()) {
+            throw new BookingRejectedException(RejectionReason.HOLIDAY, "Это праздничный день");
+        }
+
+        int hours = durationOf(appointmentDTO);
+        if (!isWithinWorkingHours(hour, hours, schedule)) {
+            throw new BookingRejectedException(RejectionReason.OUTSIDE_WORKING_HOURS, "Вне рабочего времени");
+        }
+
+        if (!bookedDays.add(new ClientDay(client.getId(), date))) {
+            throw new BookingRejectedException(RejectionReason.DUPLICATE_BOOKING, "У клиента уже есть запись на этот день");
+        }
+
+        if (schedule.getMaxCapacity() > 10) {
+            throw new BookingRejectedException(RejectionReason.CAPACITY_FULL, "Нет свободных мест на это время");
+        }
+
+        return Appointment.builder()
+                .id(UUID.randomUUID())
+                .client(client)
+                .scheduleDate(date)
+                .startTime(hour)
+                .durationHours(hours)
+                .status("active")
+                .build();
+    }
+
+    private DayOccupancy availableOccupancy(LocalDate date) {
+        CachedDay day = dayOccupancyCache.get(date, this::loadAvailableDay);
+        if (day == null) {
+            throw new BookingRejectedException(RejectionReason.NO_SCHEDULE, "На эту дату нет расписания");
+        }
+
+        if (day.holiday()) {
+            throw new BookingRejectedException(RejectionReason.HOLIDAY, "Это праздничный день");
+        }
+
+        return day.occupancy();
+    }
+
+    private CachedDay loadBookedDay(LocalDate date) {
+        Optional<ScheduleDay> scheduleOpt = scheduleDayCache.findByDate(date);
+        if (scheduleOpt.isEmpty()) {
+            return null;
+        }
+
+        ScheduleDay schedule = scheduleOpt.get();
+        List<TimeSlot> timeSlots = timeSlotRepository.findByScheduleDate(date);
+        return new CachedDay(Boolean.TRUE.equals(schedule.getIsHoliday()), DayOccupancy.of(schedule, timeSlots));
+    }
+
+    private CachedDay loadAvailableDay(LocalDate date) {
+        List<DaySlotView> rows = scheduleDayRepository.findDaySlots(date);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        return new CachedDay(Boolean.TRUE.equals(rows.get(0).getIsHoliday()), DayOccupancy.of(rows));
+    }
+
+    private List<ScheduleDay> findSchedulesInRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало периода позже его окончания");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Период не может быть длиннее " + MAX_RANGE_DAYS + " дней");
+        }
+        long generation = scheduleDayCache.generation();
+        List<ScheduleDay> schedules = scheduleDayRepository.findByDateBetweenOrderByDate(from, to);
+        schedules.forEach(schedule -> scheduleDayCache.put(schedule, generation));
+        return schedules;
+    }
+
+    private Map<LocalDate, List<TimeSlot>> findTimeSlotsInRange(List<ScheduleDay> schedules,
+                                                                LocalDate from, LocalDate to) {
+        if (schedules.isEmpty()) {
+            return Map.of();
+        }
+        return timeSlotRepository.findByScheduleDateBetween(from, to).stream()
+                .collect(Collectors.groupingBy(TimeSlot::getScheduleDate));
+    }
+
+    private void releaseSlots(LocalDate date, LocalTime hour, int hours) {
+        if (slotCapacityEngine.isEnabled()) {
+            slotCapacityEngine.release(date, hour, hours);
+        } else if (hours == 1) {
+            timeSlotRepository.decrementBookedCount(date, hour);
+        } else {
+            timeSlotRepository.decrementBookedCountRange(date, hour, hour.plusHours(hours - 1));
+        }
+    }
+
+    /**
+     * Занимает места во всех часах записи: либо во всех сразу, либо ни в одном.
+     */
+    private boolean reserveSlots(LocalDate date, LocalTime hour, int hours, int capacity) {
+        if (slotCapacityEngine.isEnabled()) {
+            return slotCapacityEngine.tryReserve(date, hour, hours, capacity);
+        }
+        if (hours == 1) {
+            return timeSlotRepository.incrementBookedCount(date, hour, capacity) > 0;
+        }
+        return timeSlotRepository.incrementBookedCountRange(
+                date, hour, hour.plusHours(hours - 1), capacity, hours) == hours;
+    }
+
+    private void publishSlotChange(LocalDate date, LocalTime hour, int hours, int delta) {
+        for (int i = 0; i < hours; i++) {
+            eventPublisher.publishEvent(new SlotChangedEvent(date, hour.plusHours(i), delta));
+        }
+    }
+
+    private int durationOf(AppointmentDTO appointmentDTO) {
+        return appointmentDTO.getDurationHours() != null ? appointmentDTO.getDurationHours() : 1;
     }
 
-    private boolean isWithinWorkingHours(LocalTime time, ScheduleDay schedule) {
+    /**
+     * Последний час записи должен начинаться до закрытия и не переходить через полночь.
+     */
+    private boolean isWithinWorkingHours(LocalTime time, int hours, ScheduleDay schedule) {
+        long lastHourStart = time.toSecondOfDay() + (hours - 1) * 3600L;
         return !time.isBefore(schedule.getOpeningTime()) &&
-                time.isBefore(schedule.getClosingTime());
+                lastHourStart < schedule.getClosingTime().toSecondOfDay();
     }
 
-    private TimeSlot findTimeSlot(List<TimeSlot> slots, LocalTime hour) {
-        return slots.stream()
-                .filter(slot -> slot.getHour().equals(hour))
-                .findFirst()
-                .orElse(null);
+    private record ClientDay(Long clientId, LocalDate date) {
     }
 }
\ No newline at end of file
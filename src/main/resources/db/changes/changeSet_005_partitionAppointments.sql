@@ -0,0 +1,59 @@
+-- Записи секционируются по schedule_date помесячно (appointments_pYYYYMM).
+-- Секции на следующие месяцы создает AppointmentArchiver; записи за прошедшие дни
+-- переносятся в appointments_archive, опустевшие секции прошлых месяцев удаляются.
+ALTER TABLE appointments RENAME TO appointments_unpartitioned;
+ALTER TABLE appointments_unpartitioned RENAME CONSTRAINT unique_client_per_day TO unique_client_per_day_unpartitioned;
+
+CREATE TABLE appointments
+(
+    id             UUID        NOT NULL,
+    client_id      BIGINT      NOT NULL REFERENCES clients (id) ON DELETE CASCADE,
+    schedule_date  DATE        NOT NULL,
+    start_time     TIME        NOT NULL,
+    duration_hours INTEGER     DEFAULT 1,
+    status         VARCHAR(20) DEFAULT 'active',
+    created_at     TIMESTAMP   DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, schedule_date),
+    CONSTRAINT unique_client_per_day UNIQUE (client_id, schedule_date),
+    CONSTRAINT valid_start_time
+        CHECK (EXTRACT(MINUTE FROM start_time) = 0 AND EXTRACT(SECOND FROM start_time) = 0)
+) PARTITION BY RANGE (schedule_date);
+
+CREATE TABLE appointments_default PARTITION OF appointments DEFAULT;
+
+DO
+$$
+    DECLARE
+        month DATE := date_trunc('month', LEAST(
+                COALESCE((SELECT MIN(schedule_date) FROM appointments_unpartitioned), CURRENT_DATE),
+                CURRENT_DATE))::date;
+    BEGIN
+        WHILE month < (date_trunc('month', CURRENT_DATE) + INTERVAL '13 months')::date
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF appointments FOR VALUES FROM (%L) TO (%L)',
+                               'appointments_p' || to_char(month, 'YYYYMM'),
+                               month, (month + INTERVAL '1 month')::date);
+                month := (month + INTERVAL '1 month')::date;
+            END LOOP;
+    END
+$$;
+
+INSERT INTO appointments (id, client_id, schedule_date, start_time, duration_hours, status, created_at)
+SELECT id, client_id, schedule_date, start_time, duration_hours, status, created_at
+FROM appointments_unpartitioned;
+
+DROP TABLE appointments_unpartitioned;
+
+CREATE TABLE appointments_archive
+(
+    id             UUID PRIMARY KEY,
+    client_id      BIGINT      NOT NULL,
+    schedule_date  DATE        NOT NULL,
+    start_time     TIME        NOT NULL,
+    duration_hours INTEGER     DEFAULT 1,
+    status         VARCHAR(20) NOT NULL,
+    created_at     TIMESTAMP,
+    archived_at    TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_appointments_archive_client_date ON appointments_archive (client_id, schedule_date);
@@ -0,0 +1,8 @@
+-- Покрывающие индексы для истории записей клиента (AppointmentRepository.findHistory):
+-- страница читается index-only scan без обращения к строкам таблицы.
+CREATE INDEX idx_appointments_client_history
+    ON appointments (client_id, schedule_date DESC) INCLUDE (id, start_time, duration_hours, status);
+
+DROP INDEX IF EXISTS idx_appointments_archive_client_date;
+CREATE INDEX idx_appointments_archive_client_history
+    ON appointments_archive (client_id, schedule_date DESC) INCLUDE (id, start_time, duration_hours, status);
@@ -0,0 +1,25 @@
+-- DETACH PARTITION CONCURRENTLY недоступен, пока у таблицы есть секция по умолчанию,
+-- а обычный DETACH/DROP секции берет ACCESS EXCLUSIVE на всю appointments.
+-- Записи из appointments_default переносятся в помесячные секции, сама секция удаляется;
+-- секции на months-ahead месяцев вперед создает AppointmentArchiver при запуске и каждую ночь.
+ALTER TABLE appointments DETACH PARTITION appointments_default;
+
+DO
+$$
+    DECLARE
+        month DATE;
+    BEGIN
+        FOR month IN SELECT DISTINCT date_trunc('month', schedule_date)::date FROM appointments_default
+            LOOP
+                EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF appointments FOR VALUES FROM (%L) TO (%L)',
+                               'appointments_p' || to_char(month, 'YYYYMM'),
+                               month, (month + INTERVAL '1 month')::date);
+            END LOOP;
+    END
+$$;
+
+INSERT INTO appointments (id, client_id, schedule_date, start_time, duration_hours, status, created_at)
+SELECT id, client_id, schedule_date, start_time, duration_hours, status, created_at
+FROM appointments_default;
+
+DROP TABLE appointments_default;
@@ -0,0 +1,108 @@
+package com.example.testwork;
+
+import com.example.testwork.service.AppointmentArchiver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentArchiverTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentArchiver archiver;
+
+    private final LocalDate cutoff = LocalDate.of(2024, 3, 10);
+
+    @BeforeEach
+    void setUp() {
+        archiver = new AppointmentArchiver(jdbcTemplate, transactionManager, true, 100, 5, 13);
+    }
+
+    @Test
+    void archive_shouldMoveBatchesUntilLastIsIncomplete() {
+        when(jdbcTemplate.update(anyString(), eq(cutoff), eq(100))).thenReturn(100, 100, 42);
+
+        int moved = archiver.archive(cutoff);
+
+        assertEquals(242, moved);
+        verify(jdbcTemplate, times(3)).update(anyString(), eq(cutoff), eq(100));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void archive_shouldStopAfterMaxBatches() {
+        when(jdbcTemplate.update(anyString(), eq(cutoff), eq(100))).thenReturn(100);
+
+        int moved = archiver.archive(cutoff);
+
+        assertEquals(500, moved);
+        verify(jdbcTemplate, times(5)).update(anyString(), eq(cutoff), eq(100));
+    }
+
+    @Test
+    void dropEmptyPartitions_shouldDetachConcurrentlyAndDropOnlyEmptyPastMonths() {
+        when(jdbcTemplate.queryForList(contains("AND i.inhdetachpending"), eq(String.class))).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("AND NOT i.inhdetachpending"), eq(String.class))).thenReturn(List.of(
+                "appointments_p202401", "appointments_p202402", "appointments_p202403", "appointments_p202404"));
+        when(jdbcTemplate.queryForObject(contains("appointments_p202401"), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains("appointments_p202402"), eq(Boolean.class))).thenReturn(false);
+
+        int dropped = archiver.dropEmptyPartitions(YearMonth.of(2024, 3));
+
+        assertEquals(1, dropped);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE appointments DETACH PARTITION appointments_p202401 CONCURRENTLY");
+        order.verify(jdbcTemplate).execute("DROP TABLE appointments_p202401");
+        verify(jdbcTemplate, never()).execute(contains("appointments_p202402"));
+        verify(jdbcTemplate, never()).queryForObject(contains("appointments_p202403"), eq(Boolean.class));
+    }
+
+    @Test
+    void dropEmptyPartitions_shouldFinalizeInterruptedDetach() {
+        when(jdbcTemplate.queryForList(contains("AND i.inhdetachpending"), eq(String.class)))
+                .thenReturn(List.of("appointments_p202312"));
+        when(jdbcTemplate.queryForList(contains("AND NOT i.inhdetachpending"), eq(String.class))).thenReturn(List.of());
+
+        int dropped = archiver.dropEmptyPartitions(YearMonth.of(2024, 3));
+
+        assertEquals(1, dropped);
+        verify(jdbcTemplate).execute("ALTER TABLE appointments DETACH PARTITION appointments_p202312 FINALIZE");
+        verify(jdbcTemplate).execute("DROP TABLE appointments_p202312");
+    }
+
+    @Test
+    void ensurePartitions_shouldCreateCurrentAndFutureMonths() {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class))).thenReturn(true);
+
+        archiver.ensurePartitions();
+
+        verify(jdbcTemplate, times(14)).execute(startsWith("CREATE TABLE IF NOT EXISTS appointments_p"));
+    }
+
+    @Test
+    void ensurePartitions_whenTableIsNotPartitioned_shouldDoNothing() {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class))).thenReturn(false);
+
+        archiver.ensurePartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
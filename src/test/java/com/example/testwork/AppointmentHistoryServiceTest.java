@@ -0,0 +1,96 @@
+package com.example.testwork;
+
+import com.example.testwork.DTO.AppointmentHistoryDTO;
+import com.example.testwork.repository.AppointmentArchiveRepository;
+import com.example.testwork.repository.AppointmentRepository;
+import com.example.testwork.repository.ClientRepository;
+import com.example.testwork.service.AppointmentHistoryService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentHistoryServiceTest {
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentArchiveRepository appointmentArchiveRepository;
+
+    @InjectMocks
+    private AppointmentHistoryService appointmentHistoryService;
+
+    @Test
+    void getHistory_withArchive_shouldMergeNewestFirstUpToLimit() {
+        LocalDate today = LocalDate.now();
+        AppointmentHistoryDTO upcoming = appointment(today.plusDays(3), "active");
+        AppointmentHistoryDTO yesterday = appointment(today.minusDays(1), "active");
+        AppointmentHistoryDTO lastMonth = appointment(today.minusDays(30), "completed");
+        AppointmentHistoryDTO lastYear = appointment(today.minusDays(365), "cancelled");
+
+        when(clientRepository.existsById(1L)).thenReturn(true);
+        when(appointmentRepository.findHistory(eq(1L), any(), any(), isNull(), any(Limit.class)))
+                .thenReturn(List.of(upcoming, yesterday));
+        when(appointmentArchiveRepository.isEnabled()).thenReturn(true);
+        when(appointmentArchiveRepository.findHistory(eq(1L), any(), any(), isNull(), eq(3)))
+                .thenReturn(List.of(lastMonth, lastYear));
+
+        List<AppointmentHistoryDTO> result = appointmentHistoryService.getHistory(1L, null, null, null, 3);
+
+        assertEquals(List.of(upcoming, yesterday, lastMonth), result);
+    }
+
+    @Test
+    void getHistory_forFutureRange_shouldSkipArchive() {
+        LocalDate from = LocalDate.now().plusDays(1);
+        when(clientRepository.existsById(1L)).thenReturn(true);
+        when(appointmentArchiveRepository.isEnabled()).thenReturn(true);
+        when(appointmentRepository.findHistory(eq(1L), eq(from), eq(from.plusDays(10)), eq("active"), any(Limit.class)))
+                .thenReturn(List.of());
+
+        appointmentHistoryService.getHistory(1L, "active", from, from.plusDays(10), 20);
+
+        verify(appointmentArchiveRepository, never()).findHistory(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getHistory_withUnknownStatus_shouldThrowException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> appointmentHistoryService.getHistory(1L, "deleted", null, null, 20)
+        );
+
+        assertEquals("Неизвестный статус записи", exception.getMessage());
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    void getHistory_withNonExistingClient_shouldThrowException() {
+        when(clientRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class,
+                () -> appointmentHistoryService.getHistory(99L, null, null, null, 20));
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    private AppointmentHistoryDTO appointment(LocalDate date, String status) {
+        return new AppointmentHistoryDTO(UUID.randomUUID(), date, LocalTime.of(10, 0), 1, status);
+    }
+}
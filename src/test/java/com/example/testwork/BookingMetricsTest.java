@@ -0,0 +1,43 @@
+package com.example.testwork;
+
+import com.example.testwork.exception.BookingRejectedException;
+import com.example.testwork.metrics.BookingMetrics;
+import com.example.testwork.metrics.BookingOperation;
+import com.example.testwork.metrics.MetricsWriter;
+import com.example.testwork.metrics.RejectionReason;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingMetricsTest {
+
+    private final BookingMetrics bookingMetrics = new BookingMetrics();
+
+    @Test
+    void record_shouldCountCallsAndRejectionsByReason() {
+        assertEquals("ok", bookingMetrics.record(BookingOperation.RESERVE, () -> "ok"));
+
+        assertThrows(BookingRejectedException.class, () -> bookingMetrics.record(BookingOperation.RESERVE, () -> {
+            throw new BookingRejectedException(RejectionReason.HOLIDAY, "Это праздничный день");
+        }));
+
+        assertEquals(2, bookingMetrics.getCalls(BookingOperation.RESERVE));
+        assertEquals(1, bookingMetrics.getRejections(RejectionReason.HOLIDAY));
+        assertEquals(0, bookingMetrics.getRejections(RejectionReason.CAPACITY_FULL));
+    }
+
+    @Test
+    void writeMetrics_shouldProduceCumulativeHistogram() {
+        bookingMetrics.record(BookingOperation.CANCEL, () -> true);
+        bookingMetrics.recordRejection(RejectionReason.CAPACITY_FULL);
+
+        MetricsWriter writer = new MetricsWriter();
+        bookingMetrics.writeMetrics(writer);
+        String text = writer.toString();
+
+        assertTrue(text.contains("# TYPE pool_booking_duration_seconds histogram"));
+        assertTrue(text.contains("pool_booking_duration_seconds_bucket{operation=\"cancel\",le=\"+Inf\"} 1"));
+        assertTrue(text.contains("pool_booking_duration_seconds_count{operation=\"cancel\"} 1"));
+        assertTrue(text.contains("pool_booking_rejections_total{reason=\"capacity_full\"} 1"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.testwork;
+
+import com.example.testwork.DTO.ClientDTO;
+import com.example.testwork.repository.ClientRepository;
+import com.example.testwork.service.ClientSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientSearchIndexTest {
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    private ClientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(clientRepository.findPageAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new ClientDTO(1L, "Иван Петров", "+7 (916) 123-45-67", null),
+                new ClientDTO(2L, "Иванна Сидорова", "+79169998877", null),
+                new ClientDTO(3L, "Петр Иванов", "+79031112233", null),
+                new ClientDTO(4L, "Артём Иванченко", "+79035554433", null)));
+
+        index = new ClientSearchIndex(clientRepository, true);
+        index.load();
+    }
+
+    @Test
+    void search_byNamePrefix_shouldRankNameStartFirst() {
+        List<Long> ids = index.search("Ива", 10).stream().map(ClientDTO::getId).toList();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids);
+    }
+
+    @Test
+    void search_bySeveralWords_shouldRequireEveryWord() {
+        List<ClientDTO> result = index.search("пет ив", 10);
+
+        assertEquals(List.of(1L, 3L), result.stream().map(ClientDTO::getId).toList());
+    }
+
+    @Test
+    void search_bySubstringAndYo_shouldMatchInsideWords() {
+        assertEquals(List.of(4L), index.search("артем", 10).stream().map(ClientDTO::getId).toList());
+        assertEquals(List.of(4L), index.search("анч", 10).stream().map(ClientDTO::getId).toList());
+    }
+
+    @Test
+    void search_byPhoneDigits_shouldIgnoreFormatting() {
+        List<ClientDTO> result = index.search("123-45", 10);
+
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+        assertTrue(index.search("12", 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldReturnAtMostLimit() {
+        assertEquals(2, index.search("ив", 2).size());
+    }
+
+    @Test
+    void put_withChangedName_shouldReplaceOldKeys() {
+        index.put(new ClientDTO(2L, "Мария Смирнова", "+79169998877", null));
+
+        assertTrue(index.search("иванна", 10).isEmpty());
+        assertEquals(List.of(2L), index.search("смир", 10).stream().map(ClientDTO::getId).toList());
+    }
+
+    @Test
+    void load_shouldNotOverwriteClientUpdatedWhileLoading() {
+        ClientSearchIndex reloading = new ClientSearchIndex(clientRepository, true);
+        when(clientRepository.findPageAfter(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            // клиента переименовали, пока страница со старым именем шла из базы
+            reloading.put(new ClientDTO(2L, "Мария Смирнова", "+79169998877", null));
+            return List.of(
+                    new ClientDTO(1L, "Иван Петров", "+7 (916) 123-45-67", null),
+                    new ClientDTO(2L, "Иванна Сидорова", "+79169998877", null));
+        });
+
+        reloading.load();
+
+        assertTrue(reloading.search("иванна", 10).isEmpty());
+        assertEquals(List.of(2L), reloading.search("смир", 10).stream().map(ClientDTO::getId).toList());
+        assertEquals(List.of(1L), reloading.search("петров", 10).stream().map(ClientDTO::getId).toList());
+    }
+}
@@ -3,6 +3,8 @@ package com.example.testwork;
 import com.example.testwork.DTO.ClientDTO;
 import com.example.testwork.entity.Client;
 import com.example.testwork.repository.ClientRepository;
+import com.example.testwork.service.ClientPhoneIndex;
+import com.example.testwork.service.ClientSearchIndex;
 import com.example.testwork.service.ClientService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -27,6 +30,12 @@ class ClientServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private ClientPhoneIndex clientPhoneIndex;
+
+    @Mock
+    private ClientSearchIndex clientSearchIndex;
+
     @InjectMocks
     private ClientService clientService;
 
@@ -65,6 +74,38 @@ class ClientServiceTest {
         verify(clientRepository, times(1)).findAll();
     }
 
+    @Test
+    void getClientsPage_shouldQueryAfterGivenId() {
+        ClientDTO next = new ClientDTO(2L, "Петр Петров", "+79161234568", null);
+        when(clientRepository.findPageAfter(1L, Limit.of(50))).thenReturn(List.of(next));
+
+        List<ClientDTO> result = clientService.getClientsPage(1L, 50);
+
+        assertEquals(List.of(next), result);
+        verify(clientRepository, never()).findAll();
+    }
+
+    @Test
+    void getClientsPage_withoutCursor_shouldStartFromBeginning() {
+        when(clientRepository.findPageAfter(0L, Limit.of(10))).thenReturn(List.of());
+
+        List<ClientDTO> result = clientService.getClientsPage(null, 10);
+
+        assertTrue(result.isEmpty());
+        verify(clientRepository, times(1)).findPageAfter(0L, Limit.of(10));
+    }
+
+    @Test
+    void getClientsPage_withTooLargeLimit_shouldThrowException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> clientService.getClientsPage(null, ClientService.MAX_PAGE_SIZE + 1)
+        );
+
+        assertEquals("Размер страницы должен быть от 1 до 1000", exception.getMessage());
+        verifyNoInteractions(clientRepository);
+    }
+
     @Test
     void getClient_withValidId_shouldReturnClient() {
         when(clientRepository.findById(1L)).thenReturn(Optional.of(testClient));
@@ -118,6 +159,51 @@ class ClientServiceTest {
         verify(clientRepository, times(1)).save(any(Client.class));
     }
 
+    @Test
+    void addClient_withPhoneMissingFromIndex_shouldSkipExistenceQuery() {
+        ClientDTO newClientDTO = new ClientDTO();
+        newClientDTO.setName("Петр Петров");
+        newClientDTO.setPhone("+79161234568");
+
+        Client savedClient = Client.builder()
+                .id(2L)
+                .name("Петр Петров")
+                .phone("+79161234568")
+                .build();
+
+        when(clientPhoneIndex.isDefinitelyAbsent("+79161234568")).thenReturn(true);
+        when(clientRepository.save(any(Client.class))).thenReturn(savedClient);
+
+        ClientDTO result = clientService.addClient(newClientDTO);
+
+        assertEquals(2L, result.getId());
+        verify(clientRepository, never()).existsByPhone(anyString());
+        verify(clientPhoneIndex, times(1)).add("+79161234568");
+        verify(clientSearchIndex, times(1)).put(result);
+    }
+
+    @Test
+    void searchClients_withLoadedIndex_shouldNotQueryDatabase() {
+        when(clientSearchIndex.isLoaded()).thenReturn(true);
+        when(clientSearchIndex.search("иван", 10)).thenReturn(List.of(testClientDTO));
+
+        List<ClientDTO> result = clientService.searchClients("иван", 10);
+
+        assertEquals(List.of(testClientDTO), result);
+        verify(clientRepository, never()).findByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void searchClients_withBlankQuery_shouldThrowException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> clientService.searchClients("  ", 10)
+        );
+
+        assertEquals("Строка поиска не может быть пустой", exception.getMessage());
+        verify(clientSearchIndex, never()).search(anyString(), anyInt());
+    }
+
     @Test
     void addClient_withDuplicatePhone_shouldThrowException() {
         ClientDTO newClientDTO = new ClientDTO();
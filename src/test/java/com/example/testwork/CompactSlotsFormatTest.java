@@ -0,0 +1,42 @@
+package com.example.testwork;
+
+import com.example.testwork.DTO.CompactSlotsDTO;
+import com.example.testwork.config.CompactSlotsHttpMessageConverter;
+import com.example.testwork.config.SlotMediaTypes;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactSlotsFormatTest {
+
+    @Test
+    void encode_shouldWriteHeaderAndOneBytePerSlot() {
+        CompactSlotsDTO slots = new CompactSlotsDTO(LocalTime.of(8, 30), 60, new int[]{0, 7, 10, 300});
+
+        byte[] body = CompactSlotsHttpMessageConverter.encode(slots);
+
+        assertArrayEquals(new byte[]{1, 0x01, (byte) 0xFE, 60, 4, 0, 7, 10, (byte) 0xFF}, body);
+    }
+
+    @Test
+    void encode_withoutSchedule_shouldWriteEmptyDay() {
+        byte[] body = CompactSlotsHttpMessageConverter.encode(new CompactSlotsDTO(null, 60, new int[0]));
+
+        assertArrayEquals(new byte[]{1, 0, 0, 60, 0}, body);
+    }
+
+    @Test
+    void preferredCompact_shouldFollowAcceptQuality() {
+        assertNull(SlotMediaTypes.preferredCompact(null));
+        assertNull(SlotMediaTypes.preferredCompact("application/json"));
+        assertNull(SlotMediaTypes.preferredCompact("*/*"));
+        assertEquals(SlotMediaTypes.COMPACT_BINARY,
+                SlotMediaTypes.preferredCompact("application/vnd.pool.slots"));
+        assertEquals(SlotMediaTypes.COMPACT_JSON,
+                SlotMediaTypes.preferredCompact("application/vnd.pool.slots+json, application/json;q=0.5"));
+        assertNull(SlotMediaTypes.preferredCompact("application/json, application/vnd.pool.slots;q=0.5"));
+        assertNull(SlotMediaTypes.preferredCompact("not a media type"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.testwork;
+
+import com.example.testwork.config.ConcurrencyLimitedDataSource;
+import com.example.testwork.exception.DbOverloadedException;
+import com.example.testwork.service.DbConcurrencyLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private DbConcurrencyLimiter limiter;
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new DbConcurrencyLimiter(true, 1, Duration.ofMillis(20));
+        dataSource = new ConcurrencyLimitedDataSource(target, limiter);
+    }
+
+    @Test
+    void getConnection_shouldHoldPermitUntilConnectionIsClosed() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+
+        Connection first = dataSource.getConnection();
+        assertEquals(1, limiter.stats().inUse());
+        assertThrows(DbOverloadedException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        verify(connection, times(2)).close();
+        assertEquals(0, limiter.stats().inUse());
+
+        dataSource.getConnection().close();
+        assertEquals(0, limiter.stats().inUse());
+    }
+
+    @Test
+    void getConnection_whenTargetFails_shouldReleasePermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(0, limiter.stats().inUse());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.testwork;
+
+import com.example.testwork.exception.TooManyRequestsException;
+import com.example.testwork.service.DateAdmissionLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateAdmissionLimiterTest {
+
+    private final LocalDate date = LocalDate.of(2024, 1, 15);
+
+    @Test
+    void reserve_overBurst_shouldRejectWithRetryAfter() {
+        DateAdmissionLimiter limiter = new DateAdmissionLimiter(true, 1, 2, Duration.ZERO, 10, 2, 100);
+
+        limiter.reserve(date);
+        limiter.reserve(date);
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class, () -> limiter.reserve(date));
+
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+    }
+
+    @Test
+    void reserve_shouldLimitEachDateSeparately() {
+        DateAdmissionLimiter limiter = new DateAdmissionLimiter(true, 1, 1, Duration.ZERO, 10, 2, 100);
+
+        limiter.reserve(date);
+        assertThrows(TooManyRequestsException.class, () -> limiter.reserve(date));
+        assertDoesNotThrow(() -> limiter.reserve(date.plusDays(1)));
+    }
+
+    @Test
+    void reserve_withinMaxWait_shouldReturnWaitInsteadOfRejecting() {
+        DateAdmissionLimiter limiter = new DateAdmissionLimiter(true, 100, 1, Duration.ofMillis(100), 1, 2, 100);
+
+        assertEquals(0, limiter.reserve(date));
+        long waitNanos = limiter.reserve(date);
+
+        assertTrue(waitNanos >= Duration.ofMillis(5).toNanos());
+        assertTrue(waitNanos <= Duration.ofMillis(100).toNanos());
+    }
+
+    @Test
+    void admit_whenDelayed_shouldRunActionLaterWithoutBlockingCaller() {
+        DateAdmissionLimiter limiter = new DateAdmissionLimiter(true, 10, 1, Duration.ofMillis(200), 1, 2, 100);
+
+        assertEquals("first", limiter.admit(date, () -> "first").join());
+        long started = System.nanoTime();
+        CompletableFuture<String> second = limiter.admit(date, () -> "second");
+
+        assertTrue(System.nanoTime() - started < Duration.ofMillis(50).toNanos());
+        assertEquals("second", second.join());
+        assertTrue(System.nanoTime() - started >= Duration.ofMillis(50).toNanos());
+        limiter.shutdown();
+    }
+
+    @Test
+    void reserve_whenDisabled_shouldAlwaysAdmit() {
+        DateAdmissionLimiter limiter = new DateAdmissionLimiter(false, 1, 1, Duration.ZERO, 1, 2, 100);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.reserve(date);
+        }
+    }
+
+    @Test
+    void schedule_overMaxScheduled_shouldRejectWithoutQueueing() {
+        DateAdmissionLimiter limiter = new DateAdmissionLimiter(true, 1, 1, Duration.ofMinutes(1), 10, 1, 1);
+
+        CompletableFuture<String> first = limiter.schedule(Duration.ofMinutes(1).toNanos(), () -> "first");
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> limiter.schedule(Duration.ofMinutes(1).toNanos(), () -> "second"));
+
+        assertEquals(1, exception.getRetryAfterSeconds());
+        assertEquals(1, limiter.getScheduled());
+        assertFalse(first.isDone());
+        limiter.shutdown();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.testwork;
+
+import com.example.testwork.DTO.CompactSlotsDTO;
+import com.example.testwork.DTO.TimeSlotResponseDTO;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.entity.TimeSlot;
+import com.example.testwork.service.DayOccupancy;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DayOccupancyTest {
+
+    private final LocalDate date = LocalDate.of(2024, 1, 15);
+
+    private final ScheduleDay scheduleDay = ScheduleDay.builder()
+            .date(date)
+            .openingTime(LocalTime.of(8, 0))
+            .closingTime(LocalTime.of(22, 0))
+            .maxCapacity(10)
+            .build();
+
+    @Test
+    void of_shouldIndexSlotsByHourOffset() {
+        List<TimeSlot> timeSlots = List.of(
+                TimeSlot.builder().scheduleDate(date).hour(LocalTime.of(8, 0)).bookedCount(3).build(),
+                TimeSlot.builder().scheduleDate(date).hour(LocalTime.of(21, 0)).bookedCount(10).build(),
+                TimeSlot.builder().scheduleDate(date).hour(LocalTime.of(23, 0)).bookedCount(7).build());
+
+        DayOccupancy occupancy = DayOccupancy.of(scheduleDay, timeSlots);
+
+        assertEquals(14, occupancy.size());
+        assertEquals(3, occupancy.bookedAt(0));
+        assertEquals(0, occupancy.bookedAt(1));
+        assertEquals(10, occupancy.bookedAt(13));
+        assertEquals(LocalTime.of(21, 0), occupancy.hourAt(13));
+    }
+
+    @Test
+    void toAvailableSlots_shouldSkipFullHours() {
+        List<TimeSlot> timeSlots = List.of(
+                TimeSlot.builder().scheduleDate(date).hour(LocalTime.of(9, 0)).bookedCount(10).build());
+
+        List<TimeSlotResponseDTO> booked = DayOccupancy.of(scheduleDay, timeSlots).toBookedSlots();
+        List<TimeSlotResponseDTO> available = DayOccupancy.of(scheduleDay, timeSlots).toAvailableSlots();
+
+        assertEquals(14, booked.size());
+        assertEquals(new TimeSlotResponseDTO("09:00", 10), booked.get(1));
+        assertEquals(13, available.size());
+        assertEquals(new TimeSlotResponseDTO("08:00", 10), available.get(0));
+        assertEquals(new TimeSlotResponseDTO("10:00", 10), available.get(1));
+    }
+
+    @Test
+    void toCompact_shouldKeepEveryHourInPosition() {
+        List<TimeSlot> timeSlots = List.of(
+                TimeSlot.builder().scheduleDate(date).hour(LocalTime.of(9, 0)).bookedCount(10).build(),
+                TimeSlot.builder().scheduleDate(date).hour(LocalTime.of(10, 0)).bookedCount(4).build());
+
+        CompactSlotsDTO booked = DayOccupancy.of(scheduleDay, timeSlots).toCompactBooked();
+        CompactSlotsDTO available = DayOccupancy.of(scheduleDay, timeSlots).toCompactAvailable();
+
+        assertEquals(LocalTime.of(8, 0), booked.getOpening());
+        assertEquals(60, booked.getStep());
+        assertEquals(14, booked.getCounts().length);
+        assertArrayEquals(new int[]{0, 10, 4}, Arrays.copyOf(booked.getCounts(), 3));
+        assertArrayEquals(new int[]{10, 0, 6}, Arrays.copyOf(available.getCounts(), 3));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.testwork;
+
+import com.example.testwork.exception.DbOverloadedException;
+import com.example.testwork.service.DbConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbConcurrencyLimiterTest {
+
+    @Test
+    void acquire_whenAllPermitsTaken_shouldTimeOut() {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(true, 1, Duration.ofMillis(20));
+
+        limiter.acquire();
+        assertThrows(DbOverloadedException.class, limiter::acquire);
+
+        DbConcurrencyLimiter.Stats stats = limiter.stats();
+        assertEquals(1, stats.inUse());
+        assertEquals(1, stats.acquired());
+        assertEquals(1, stats.timeouts());
+        assertTrue(stats.maxWaitMicros() >= 20_000);
+    }
+
+    @Test
+    void release_shouldLetNextRequestThrough() {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(true, 1, Duration.ofMillis(20));
+
+        limiter.acquire();
+        limiter.release();
+        limiter.acquire();
+
+        assertEquals(2, limiter.stats().acquired());
+        assertEquals(0, limiter.stats().timeouts());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.testwork;
+
+import com.example.testwork.DTO.CancelRequestDTO;
+import com.example.testwork.cache.IdempotencyStore;
+import com.example.testwork.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore idempotencyStore = new IdempotencyStore(100, Duration.ofMinutes(10));
+
+    @Test
+    void execute_withSameKeyAndRequest_shouldReturnStoredResponse() {
+        AtomicInteger calls = new AtomicInteger();
+        CancelRequestDTO request = cancelRequest(1L);
+        UUID orderId = UUID.randomUUID();
+
+        UUID first = idempotencyStore.execute("reserve", "key-1", request, () -> {
+            calls.incrementAndGet();
+            return orderId;
+        });
+        UUID replay = idempotencyStore.execute("reserve", "key-1", cancelRequest(1L), () -> {
+            calls.incrementAndGet();
+            return UUID.randomUUID();
+        });
+
+        assertEquals(orderId, first);
+        assertEquals(orderId, replay);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_withSameKeyAndDifferentRequest_shouldThrowException() {
+        idempotencyStore.execute("reserve", "key-1", cancelRequest(1L), UUID::randomUUID);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyStore.execute("reserve", "key-1", cancelRequest(2L), UUID::randomUUID));
+    }
+
+    @Test
+    void execute_afterFailure_shouldRunAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyStore.execute("cancel", "key-1", cancelRequest(1L), () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Запись не найдена");
+        }));
+        Boolean result = idempotencyStore.execute("cancel", "key-1", cancelRequest(1L), () -> {
+            calls.incrementAndGet();
+            return true;
+        });
+
+        assertTrue(result);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_withoutKey_shouldAlwaysRunAction() {
+        AtomicInteger calls = new AtomicInteger();
+
+        idempotencyStore.execute("reserve", null, cancelRequest(1L), calls::incrementAndGet);
+        idempotencyStore.execute("reserve", null, cancelRequest(1L), calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void executeAsync_replayOfCompletedRequest_shouldSkipFirstExecution() {
+        AtomicInteger admissions = new AtomicInteger();
+        UUID orderId = UUID.randomUUID();
+
+        UUID first = idempotencyStore.<UUID>executeAsync("reserve", "key-1", cancelRequest(1L), action -> {
+            admissions.incrementAndGet();
+            return CompletableFuture.completedFuture(action.get());
+        }, () -> orderId).join();
+        UUID replay = idempotencyStore.<UUID>executeAsync("reserve", "key-1", cancelRequest(1L), action -> {
+            admissions.incrementAndGet();
+            throw new IllegalStateException("Повтор не должен проходить admission");
+        }, UUID::randomUUID).join();
+
+        assertEquals(orderId, first);
+        assertEquals(orderId, replay);
+        assertEquals(1, admissions.get());
+    }
+
+    @Test
+    void executeAsync_replayOfInFlightRequest_shouldWaitForFirstResult() {
+        AtomicInteger admissions = new AtomicInteger();
+        CompletableFuture<UUID> delayed = new CompletableFuture<>();
+        UUID orderId = UUID.randomUUID();
+
+        CompletableFuture<UUID> first = idempotencyStore.executeAsync("reserve", "key-1", cancelRequest(1L), action -> {
+            admissions.incrementAndGet();
+            return delayed;
+        }, () -> orderId);
+        CompletableFuture<UUID> replay = idempotencyStore.executeAsync("reserve", "key-1", cancelRequest(1L), action -> {
+            admissions.incrementAndGet();
+            return CompletableFuture.completedFuture(action.get());
+        }, UUID::randomUUID);
+
+        assertFalse(replay.isDone());
+        delayed.complete(orderId);
+
+        assertEquals(orderId, first.join());
+        assertEquals(orderId, replay.join());
+        assertEquals(1, admissions.get());
+    }
+
+    @Test
+    void executeAsync_whenFirstExecutionRejected_shouldAdmitRetry() {
+        AtomicInteger admissions = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> idempotencyStore.<UUID>executeAsync("reserve", "key-1",
+                cancelRequest(1L), action -> {
+                    admissions.incrementAndGet();
+                    throw new IllegalStateException("Нет токена");
+                }, UUID::randomUUID));
+        UUID retry = idempotencyStore.<UUID>executeAsync("reserve", "key-1", cancelRequest(1L), action -> {
+            admissions.incrementAndGet();
+            return CompletableFuture.completedFuture(action.get());
+        }, UUID::randomUUID).join();
+
+        assertNotNull(retry);
+        assertEquals(2, admissions.get());
+    }
+
+    private static CancelRequestDTO cancelRequest(Long clientId) {
+        CancelRequestDTO request = new CancelRequestDTO();
+        request.setClientId(clientId);
+        request.setOrderId(new UUID(0, 1));
+        return request;
+    }
+}
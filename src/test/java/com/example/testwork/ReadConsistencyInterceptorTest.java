@@ -0,0 +1,66 @@
+package com.example.testwork;
+
+import com.example.testwork.config.ReadConsistency;
+import com.example.testwork.config.ReadConsistencyInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ReadConsistencyInterceptorTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ConsistencyController())
+            .addInterceptors(new ReadConsistencyInterceptor())
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        ReadConsistency.clear();
+    }
+
+    @Test
+    void asyncHandler_shouldNotLeaveFlagOnDispatchingThread() throws Exception {
+        MvcResult result = mockMvc.perform(get("/async").header(ReadConsistency.HEADER, ReadConsistency.PRIMARY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertFalse(ReadConsistency.isPrimaryRequired());
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(content().string("true"));
+        assertFalse(ReadConsistency.isPrimaryRequired());
+    }
+
+    @Test
+    void syncHandler_shouldClearFlagAfterCompletion() throws Exception {
+        mockMvc.perform(get("/sync").header(ReadConsistency.HEADER, ReadConsistency.PRIMARY))
+                .andExpect(content().string("true"));
+
+        assertFalse(ReadConsistency.isPrimaryRequired());
+    }
+
+    @RestController
+    static class ConsistencyController {
+
+        @GetMapping("/async")
+        CompletableFuture<String> async() {
+            // флаг читается на потоке запроса, как это делают обработчики перед уходом в асинхронный режим
+            return CompletableFuture.completedFuture(String.valueOf(ReadConsistency.isPrimaryRequired()));
+        }
+
+        @GetMapping("/sync")
+        String sync() {
+            return String.valueOf(ReadConsistency.isPrimaryRequired());
+        }
+    }
+}
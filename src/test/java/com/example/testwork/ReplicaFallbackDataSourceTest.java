@@ -0,0 +1,76 @@
+package com.example.testwork;
+
+import com.example.testwork.config.ReadConsistency;
+import com.example.testwork.config.ReplicaFallbackDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaFallbackDataSourceTest {
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private Connection primaryConnection;
+
+    private ReplicaFallbackDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReplicaFallbackDataSource(replica, primary, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getConnection_shouldUseReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_whenReplicaFails_shouldFallBackAndSkipReplica() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_whenPrimaryRequired_shouldUsePrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        Connection connection = ReadConsistency.onPrimary(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertSame(primaryConnection, connection);
+        assertFalse(ReadConsistency.isPrimaryRequired());
+        verifyNoInteractions(replica);
+    }
+}
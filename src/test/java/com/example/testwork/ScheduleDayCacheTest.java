@@ -0,0 +1,105 @@
+package com.example.testwork;
+
+import com.example.testwork.cache.CacheStats;
+import com.example.testwork.cache.ScheduleDayCache;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.repository.ScheduleDayRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleDayCacheTest {
+
+    @Mock
+    private ScheduleDayRepository scheduleDayRepository;
+
+    private final LocalDate date = LocalDate.of(2024, 1, 15);
+
+    @Test
+    void findByDate_repeatedCalls_shouldHitDatabaseOnce() {
+        ScheduleDayCache cache = new ScheduleDayCache(scheduleDayRepository, 10, Duration.ofMinutes(10));
+        ScheduleDay scheduleDay = ScheduleDay.builder().date(date).build();
+        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.of(scheduleDay));
+
+        assertSame(scheduleDay, cache.findByDate(date).orElseThrow());
+        assertSame(scheduleDay, cache.findByDate(date).orElseThrow());
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        verify(scheduleDayRepository, times(1)).findByDate(date);
+    }
+
+    @Test
+    void findByDate_afterInvalidate_shouldReload() {
+        ScheduleDayCache cache = new ScheduleDayCache(scheduleDayRepository, 10, Duration.ofMinutes(10));
+        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.empty());
+
+        assertTrue(cache.findByDate(date).isEmpty());
+        cache.invalidate(date);
+        assertTrue(cache.findByDate(date).isEmpty());
+
+        verify(scheduleDayRepository, times(2)).findByDate(date);
+    }
+
+    @Test
+    void findByDate_overCapacity_shouldEvictLeastRecentlyUsed() {
+        ScheduleDayCache cache = new ScheduleDayCache(scheduleDayRepository, 2, Duration.ofMinutes(10));
+        when(scheduleDayRepository.findByDate(any())).thenReturn(Optional.empty());
+
+        cache.findByDate(date);
+        cache.findByDate(date.plusDays(1));
+        cache.findByDate(date);
+        cache.findByDate(date.plusDays(2));
+        cache.findByDate(date);
+
+        assertEquals(2, cache.stats().size());
+        assertEquals(1, cache.stats().evictions());
+        verify(scheduleDayRepository, times(1)).findByDate(date);
+    }
+
+    @Test
+    void findByDate_afterTtl_shouldReload() {
+        ScheduleDayCache cache = new ScheduleDayCache(scheduleDayRepository, 10, Duration.ofNanos(1));
+        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.empty());
+
+        cache.findByDate(date);
+        cache.findByDate(date);
+
+        verify(scheduleDayRepository, times(2)).findByDate(date);
+    }
+
+    @Test
+    void put_afterInvalidateDuringQuery_shouldNotCacheStaleDay() {
+        ScheduleDayCache cache = new ScheduleDayCache(scheduleDayRepository, 10, Duration.ofMinutes(10));
+        ScheduleDay stale = ScheduleDay.builder().date(date).maxCapacity(10).build();
+        ScheduleDay fresh = ScheduleDay.builder().date(date).maxCapacity(5).build();
+        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.of(fresh));
+
+        long generation = cache.generation();
+        cache.invalidate(date);
+        cache.put(stale, generation);
+
+        assertSame(fresh, cache.findByDate(date).orElseThrow());
+    }
+
+    @Test
+    void put_withCurrentGeneration_shouldServeFromCache() {
+        ScheduleDayCache cache = new ScheduleDayCache(scheduleDayRepository, 10, Duration.ofMinutes(10));
+        ScheduleDay scheduleDay = ScheduleDay.builder().date(date).build();
+
+        cache.put(scheduleDay, cache.generation());
+
+        assertSame(scheduleDay, cache.findByDate(date).orElseThrow());
+        verifyNoInteractions(scheduleDayRepository);
+    }
+}
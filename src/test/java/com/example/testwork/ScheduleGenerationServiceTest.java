@@ -0,0 +1,106 @@
+package com.example.testwork;
+
+import com.example.testwork.DTO.DayTemplateDTO;
+import com.example.testwork.DTO.ScheduleGenerationRequestDTO;
+import com.example.testwork.DTO.ScheduleGenerationResultDTO;
+import com.example.testwork.cache.ScheduleDayCache;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.entity.TimeSlot;
+import com.example.testwork.event.ScheduleChangedEvent;
+import com.example.testwork.repository.ScheduleBatchRepository;
+import com.example.testwork.service.ScheduleGenerationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleGenerationServiceTest {
+
+    @Mock
+    private ScheduleBatchRepository scheduleBatchRepository;
+
+    @Mock
+    private ScheduleDayCache scheduleDayCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ScheduleGenerationService scheduleGenerationService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generate_shouldApplyTemplatesAndCreateSlotsForNewWorkingDays() {
+        // 2024-01-13 суббота, 2024-01-14 воскресенье, 2024-01-15 понедельник
+        LocalDate saturday = LocalDate.of(2024, 1, 13);
+        LocalDate sunday = LocalDate.of(2024, 1, 14);
+        LocalDate monday = LocalDate.of(2024, 1, 15);
+
+        ScheduleGenerationRequestDTO request = new ScheduleGenerationRequestDTO();
+        request.setFrom(saturday);
+        request.setTo(monday);
+        request.setDefaultTemplate(new DayTemplateDTO(LocalTime.of(8, 0), LocalTime.of(22, 0), 10));
+        request.setWeekdayTemplates(Map.of(DayOfWeek.SATURDAY,
+                new DayTemplateDTO(LocalTime.of(10, 0), LocalTime.of(14, 0), 5)));
+        request.setDaysOff(Set.of(DayOfWeek.SUNDAY));
+
+        // понедельник уже существует и не изменяется
+        when(scheduleBatchRepository.insertDays(anyList())).thenReturn(List.of(saturday, sunday));
+        when(scheduleBatchRepository.insertTimeSlots(anyList())).thenAnswer(invocation ->
+                ((List<TimeSlot>) invocation.getArgument(0)).size());
+
+        ScheduleGenerationResultDTO result = scheduleGenerationService.generate(request);
+
+        assertEquals(2, result.getDaysCreated());
+        assertEquals(1, result.getDaysSkipped());
+        assertEquals(4, result.getSlotsCreated());
+
+        ArgumentCaptor<List<ScheduleDay>> days = ArgumentCaptor.forClass(List.class);
+        verify(scheduleBatchRepository).insertDays(days.capture());
+        assertEquals(3, days.getValue().size());
+        assertEquals(5, days.getValue().get(0).getMaxCapacity());
+        assertTrue(days.getValue().get(1).getIsHoliday());
+        assertFalse(days.getValue().get(2).getIsHoliday());
+
+        ArgumentCaptor<List<TimeSlot>> slots = ArgumentCaptor.forClass(List.class);
+        verify(scheduleBatchRepository).insertTimeSlots(slots.capture());
+        assertTrue(slots.getValue().stream().allMatch(slot -> slot.getScheduleDate().equals(saturday)));
+        assertEquals(LocalTime.of(10, 0), slots.getValue().get(0).getHour());
+        assertEquals(LocalTime.of(13, 0), slots.getValue().get(3).getHour());
+
+        verify(scheduleDayCache).invalidate(saturday);
+        verify(scheduleDayCache).invalidate(sunday);
+        verify(scheduleDayCache, never()).invalidate(monday);
+        verify(eventPublisher).publishEvent(new ScheduleChangedEvent(saturday));
+        verify(eventPublisher, never()).publishEvent(new ScheduleChangedEvent(monday));
+    }
+
+    @Test
+    void generate_withInvertedTemplate_shouldThrowException() {
+        ScheduleGenerationRequestDTO request = new ScheduleGenerationRequestDTO();
+        request.setFrom(LocalDate.of(2024, 1, 15));
+        request.setTo(LocalDate.of(2024, 1, 20));
+        request.setDefaultTemplate(new DayTemplateDTO(LocalTime.of(22, 0), LocalTime.of(8, 0), 10));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> scheduleGenerationService.generate(request));
+
+        assertEquals("Время открытия должно быть раньше времени закрытия", exception.getMessage());
+        verifyNoInteractions(scheduleBatchRepository);
+    }
+}
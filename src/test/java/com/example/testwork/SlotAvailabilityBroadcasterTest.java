@@ -0,0 +1,87 @@
+package com.example.testwork;
+
+import com.example.testwork.event.SlotChangedEvent;
+import com.example.testwork.service.SlotAvailabilityBroadcaster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotAvailabilityBroadcasterTest {
+
+    private final SlotAvailabilityBroadcaster broadcaster =
+            new SlotAvailabilityBroadcaster(JsonMapper.builder().build(), Duration.ofMinutes(1),
+                    Duration.ofSeconds(5), 1, 16);
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void flush_shouldCoalesceChangesPerDate() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        broadcaster.subscribe(Set.of(date));
+
+        broadcaster.onSlotChanged(new SlotChangedEvent(date, LocalTime.of(14, 0), 1));
+        broadcaster.onSlotChanged(new SlotChangedEvent(date, LocalTime.of(14, 0), 1));
+        broadcaster.onSlotChanged(new SlotChangedEvent(date, LocalTime.of(15, 0), -1));
+
+        assertEquals(1, broadcaster.flush());
+        assertEquals(0, broadcaster.flush());
+    }
+
+    @Test
+    void flush_withoutSubscribers_shouldDropChanges() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        broadcaster.subscribe(Set.of(date.plusDays(1)));
+
+        broadcaster.onSlotChanged(new SlotChangedEvent(date, LocalTime.of(14, 0), 1));
+
+        assertEquals(0, broadcaster.flush());
+    }
+
+    @Test
+    void flush_whenChangesCancelOut_shouldSendNothing() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        broadcaster.subscribe(Set.of(date));
+
+        broadcaster.onSlotChanged(new SlotChangedEvent(date, LocalTime.of(14, 0), 1));
+        broadcaster.onSlotChanged(new SlotChangedEvent(date, LocalTime.of(14, 0), -1));
+
+        assertEquals(0, broadcaster.flush());
+    }
+
+    @Test
+    void subscribe_withTooManyDates_shouldThrowException() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        Set<LocalDate> dates = from.datesUntil(from.plusDays(40)).collect(Collectors.toSet());
+
+        assertThrows(IllegalArgumentException.class, () -> broadcaster.subscribe(dates));
+        assertEquals(0, broadcaster.getConnections());
+    }
+
+    @Test
+    void flush_whenSubscriberFallsBehind_shouldDisconnectIt() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        SlotAvailabilityBroadcaster stalled = new SlotAvailabilityBroadcaster(JsonMapper.builder().build(),
+                Duration.ofMinutes(1), Duration.ofSeconds(5), 1, 1);
+        stalled.shutdown();
+        stalled.subscribe(Set.of(date));
+
+        // пул отправки остановлен, поэтому события копятся в очереди подписчика
+        for (int i = 0; i <= 64; i++) {
+            stalled.onSlotChanged(new SlotChangedEvent(date, LocalTime.of(14, 0), 1));
+            stalled.flush();
+        }
+
+        assertEquals(0, stalled.getConnections());
+    }
+}
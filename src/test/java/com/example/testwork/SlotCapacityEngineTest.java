@@ -0,0 +1,125 @@
+package com.example.testwork;
+
+import com.example.testwork.event.SlotCountersFlushedEvent;
+import com.example.testwork.service.SlotCapacityEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotCapacityEngineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SlotCapacityEngine engine;
+
+    private final LocalDate date = LocalDate.of(2024, 1, 15);
+    private final LocalTime hour = LocalTime.of(14, 0);
+
+    @BeforeEach
+    void setUp() {
+        engine = new SlotCapacityEngine(jdbcTemplate, transactionManager, eventPublisher, true, 500);
+    }
+
+    @Test
+    void tryReserve_underContention_shouldNeverExceedCapacity() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return engine.tryReserve(date, hour, 10);
+            }));
+        }
+        start.countDown();
+
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(5, TimeUnit.SECONDS)) {
+                accepted++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(10, accepted);
+        assertEquals(10, engine.getBookedCount(date, hour));
+    }
+
+    @Test
+    void release_shouldFreeSlot() {
+        assertTrue(engine.tryReserve(date, hour, 1));
+        assertFalse(engine.tryReserve(date, hour, 1));
+
+        engine.release(date, hour);
+
+        assertEquals(0, engine.getBookedCount(date, hour));
+        assertTrue(engine.tryReserve(date, hour, 1));
+    }
+
+    @Test
+    void tryReserve_forSeveralHours_shouldTakeAllOrNothing() {
+        LocalTime nextHour = LocalTime.of(15, 0);
+        assertTrue(engine.tryReserve(date, nextHour, 1));
+
+        assertFalse(engine.tryReserve(date, hour, 2, 1));
+        assertEquals(0, engine.getBookedCount(date, hour));
+
+        engine.release(date, nextHour);
+        assertTrue(engine.tryReserve(date, hour, 2, 1));
+        assertEquals(1, engine.getBookedCount(date, hour));
+        assertEquals(1, engine.getBookedCount(date, nextHour));
+
+        engine.release(date, hour, 2);
+        assertEquals(0, engine.getBookedCount(date, hour));
+        assertEquals(0, engine.getBookedCount(date, nextHour));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldWriteCoalescedDeltasInOneBatch() {
+        engine.tryReserve(date, hour, 10);
+        engine.tryReserve(date, hour, 10);
+        engine.tryReserve(date, LocalTime.of(15, 0), 10);
+
+        engine.flush();
+        engine.flush();
+
+        ArgumentCaptor<Collection<Object>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(
+                anyString(), captor.capture(), eq(500), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, captor.getValue().size());
+        verify(eventPublisher, times(1)).publishEvent(new SlotCountersFlushedEvent(Set.of(date)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.testwork;
+
+import com.example.testwork.DTO.ReconciliationResultDTO;
+import com.example.testwork.DTO.SlotCorrectionDTO;
+import com.example.testwork.event.SlotsReconciledEvent;
+import com.example.testwork.service.SlotCapacityEngine;
+import com.example.testwork.service.SlotReconciliationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotReconciliationServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SlotCapacityEngine slotCapacityEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SlotReconciliationService service;
+
+    private final LocalDate from = LocalDate.now().plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        service = new SlotReconciliationService(
+                jdbcTemplate, transactionManager, slotCapacityEngine, eventPublisher, 7, 2, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_shouldQueryEachChunkAndCorrectOnlyDriftedSlots() {
+        LocalDate to = from.plusDays(13);
+        SlotCorrectionDTO drifted = new SlotCorrectionDTO(from.plusDays(8), LocalTime.of(10, 0), 3, 2);
+        SlotCorrectionDTO raced = new SlotCorrectionDTO(from.plusDays(9), LocalTime.of(11, 0), 1, 0);
+
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(from), eq(from.plusDays(6)), any(), any()))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(from.plusDays(7)), eq(to), any(), any()))
+                .thenReturn(List.of(drifted, raced));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        ReconciliationResultDTO result = service.reconcile(from, to);
+
+        assertEquals(2, result.getChunks());
+        assertEquals(List.of(drifted), result.getCorrected());
+        assertEquals(List.of(raced), result.getSkipped());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(eventPublisher).publishEvent(new SlotsReconciledEvent(Set.of(drifted.getDate())));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_withoutDrift_shouldNotUpdate() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        ReconciliationResultDTO result = service.reconcile(from, from.plusDays(2));
+
+        assertEquals(1, result.getChunks());
+        assertTrue(result.getCorrected().isEmpty());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void reconcile_withPastDates_shouldThrowException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.reconcile(LocalDate.now().minusDays(1), from)
+        );
+
+        assertEquals("Сверка возможна только для текущих и будущих дат", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void reconcile_withCapacityEngineEnabled_shouldThrowException() {
+        when(slotCapacityEngine.isEnabled()).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> service.reconcile(from, from.plusDays(1)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
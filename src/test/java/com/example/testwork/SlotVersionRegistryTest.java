@@ -0,0 +1,62 @@
+package com.example.testwork;
+
+import com.example.testwork.event.SlotChangedEvent;
+import com.example.testwork.event.SlotCountersFlushedEvent;
+import com.example.testwork.event.SlotsReconciledEvent;
+import com.example.testwork.service.SlotVersionRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotVersionRegistryTest {
+
+    private final SlotVersionRegistry registry = new SlotVersionRegistry(Duration.ofSeconds(5));
+
+    private final LocalDate date = LocalDate.of(2024, 1, 15);
+
+    @Test
+    void etag_shouldChangeOnlyForChangedDate() {
+        String before = registry.etag(date);
+        String otherBefore = registry.etag(date.plusDays(1));
+
+        registry.onSlotChanged(new SlotChangedEvent(date, LocalTime.of(14, 0), 1));
+
+        assertNotEquals(before, registry.etag(date));
+        assertEquals(otherBefore, registry.etag(date.plusDays(1)));
+        assertEquals(1, registry.version(date));
+        assertTrue(registry.isRecentlyChanged(date, date));
+        assertFalse(registry.isRecentlyChanged(date.plusDays(1), date.plusDays(5)));
+    }
+
+    @Test
+    void rangeEtag_shouldChangeWhenAnyDateInsideChanges() {
+        String before = registry.etag(date, date.plusDays(6));
+
+        registry.onCountersFlushed(new SlotCountersFlushedEvent(Set.of(date.plusDays(3))));
+
+        assertNotEquals(before, registry.etag(date, date.plusDays(6)));
+        assertEquals(registry.etag(date.plusDays(10), date.plusDays(12)),
+                registry.etag(date.plusDays(10), date.plusDays(12)));
+    }
+
+    @Test
+    void rangeEtag_forInvalidRange_shouldBeNull() {
+        assertNull(registry.etag(date, date.minusDays(1)));
+        assertNull(registry.etag(date, date.plusDays(31)));
+    }
+
+    @Test
+    void onSlotsReconciled_shouldBumpReconciledDates() {
+        String before = registry.etag(date.plusDays(2));
+
+        registry.onSlotsReconciled(new SlotsReconciledEvent(Set.of(date.plusDays(2))));
+
+        assertNotEquals(before, registry.etag(date.plusDays(2)));
+        assertEquals(1, registry.version(date.plusDays(2)));
+    }
+}
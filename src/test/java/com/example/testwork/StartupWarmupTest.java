@@ -0,0 +1,124 @@
+package com.example.testwork;
+
+import com.example.testwork.cache.ScheduleDayCache;
+import com.example.testwork.entity.ScheduleDay;
+import com.example.testwork.entity.TimeSlot;
+import com.example.testwork.metrics.MetricsWriter;
+import com.example.testwork.repository.ScheduleDayRepository;
+import com.example.testwork.repository.TimeSlotRepository;
+import com.example.testwork.service.DayOccupancyCache;
+import com.example.testwork.service.SlotVersionRegistry;
+import com.example.testwork.service.StartupWarmup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StartupWarmupTest {
+
+    @Mock
+    private ScheduleDayRepository scheduleDayRepository;
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    @Mock
+    private ScheduleDayCache scheduleDayCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate today = LocalDate.now();
+    private final SlotVersionRegistry slotVersionRegistry = new SlotVersionRegistry(Duration.ZERO);
+    private final DayOccupancyCache dayOccupancyCache = new DayOccupancyCache(slotVersionRegistry, 100, Duration.ofMinutes(10));
+
+    @Test
+    void run_shouldPreloadScheduleAndSlotsWithBulkQueries() {
+        ScheduleDay workingDay = ScheduleDay.builder()
+                .date(today)
+                .isHoliday(false)
+                .openingTime(LocalTime.of(8, 0))
+                .closingTime(LocalTime.of(22, 0))
+                .maxCapacity(10)
+                .build();
+        ScheduleDay holiday = ScheduleDay.builder()
+                .date(today.plusDays(1))
+                .isHoliday(true)
+                .openingTime(LocalTime.of(8, 0))
+                .closingTime(LocalTime.of(22, 0))
+                .maxCapacity(10)
+                .build();
+        TimeSlot slot = TimeSlot.builder()
+                .scheduleDate(today)
+                .hour(LocalTime.of(10, 0))
+                .bookedCount(3)
+                .build();
+        when(scheduleDayCache.generation()).thenReturn(5L);
+        when(scheduleDayRepository.findByDateBetweenOrderByDate(today, today.plusDays(6)))
+                .thenReturn(List.of(workingDay, holiday));
+        when(timeSlotRepository.findByScheduleDateBetween(today, today.plusDays(6))).thenReturn(List.of(slot));
+
+        StartupWarmup warmup = warmup(true);
+        warmup.run(null);
+
+        assertTrue(warmup.isFinished());
+        verify(scheduleDayCache).put(workingDay, 5L);
+        verify(scheduleDayCache).put(holiday, 5L);
+        verify(scheduleDayRepository).findDaySlots(today);
+        verify(transactionManager).commit(any());
+
+        // чтения по прогретым дням обслуживаются кэшем занятости без запросов к базе
+        DayOccupancyCache.CachedDay warmed = dayOccupancyCache.get(today, date -> fail("День должен быть прогрет"));
+        assertFalse(warmed.holiday());
+        assertEquals(3, warmed.occupancy().bookedAt(2));
+        assertTrue(dayOccupancyCache.get(today.plusDays(1), date -> fail("День должен быть прогрет")).holiday());
+
+        slotVersionRegistry.bump(today);
+        assertNull(dayOccupancyCache.get(today, date -> null));
+
+        MetricsWriter writer = new MetricsWriter();
+        warmup.writeMetrics(writer);
+        assertTrue(writer.toString().contains("pool_warmup_rows{table=\"schedule_days\"} 2"));
+        assertTrue(writer.toString().contains("pool_warmup_rows{table=\"time_slots\"} 1"));
+    }
+
+    @Test
+    void run_shouldFinishWhenDatabaseFails() {
+        when(scheduleDayRepository.findByDateBetweenOrderByDate(any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        StartupWarmup warmup = warmup(true);
+        warmup.run(null);
+
+        assertTrue(warmup.isFinished());
+        verifyNoInteractions(timeSlotRepository);
+        verify(scheduleDayCache, never()).put(any(), anyLong());
+    }
+
+    @Test
+    void run_shouldSkipWhenDisabled() {
+        StartupWarmup warmup = warmup(false);
+        warmup.run(null);
+
+        assertTrue(warmup.isFinished());
+        verifyNoInteractions(scheduleDayRepository, timeSlotRepository, transactionManager);
+    }
+
+    private StartupWarmup warmup(boolean enabled) {
+        return new StartupWarmup(scheduleDayRepository, timeSlotRepository, scheduleDayCache, dayOccupancyCache,
+                JsonMapper.builder().build(), transactionManager, enabled, 7);
+    }
+}
@@ -1,27 +1,38 @@
 package com.example.testwork;
 
 import com.example.testwork.DTO.AppointmentDTO;
+import com.example.testwork.DTO.BatchReservationResultDTO;
 import com.example.testwork.DTO.TimeSlotResponseDTO;
+import com.example.testwork.cache.ScheduleDayCache;
 import com.example.testwork.entity.Appointment;
 import com.example.testwork.entity.Client;
 import com.example.testwork.entity.ScheduleDay;
 import com.example.testwork.entity.TimeSlot;
+import com.example.testwork.event.SlotChangedEvent;
+import com.example.testwork.repository.AppointmentBatchRepository;
 import com.example.testwork.repository.AppointmentRepository;
 import com.example.testwork.repository.ClientRepository;
+import com.example.testwork.repository.DaySlotView;
 import com.example.testwork.repository.ScheduleDayRepository;
 import com.example.testwork.repository.TimeSlotRepository;
+import com.example.testwork.service.DayOccupancyCache;
+import com.example.testwork.service.SlotCapacityEngine;
+import com.example.testwork.service.SlotVersionRegistry;
 import com.example.testwork.service.TimetableService;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -42,8 +53,20 @@ class TimetableServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
-    @InjectMocks
+    @Mock
+    private SlotCapacityEngine slotCapacityEngine;
+
+    @Mock
+    private AppointmentBatchRepository appointmentBatchRepository;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private TimetableService timetableService;
+    private SlotVersionRegistry slotVersionRegistry;
 
     private Client testClient;
     private ScheduleDay testScheduleDay;
@@ -52,6 +75,19 @@ class TimetableServiceTest {
 
     @BeforeEach
     void setUp() {
+        slotVersionRegistry = new SlotVersionRegistry(Duration.ZERO);
+        timetableService = new TimetableService(
+                timeSlotRepository,
+                scheduleDayRepository,
+                clientRepository,
+                appointmentRepository,
+                slotCapacityEngine,
+                appointmentBatchRepository,
+                validator,
+                new ScheduleDayCache(scheduleDayRepository, 100, Duration.ofMinutes(10)),
+                eventPublisher,
+                new DayOccupancyCache(slotVersionRegistry, 100, Duration.ofMinutes(10)));
+
         testClient = Client.builder()
                 .id(1L)
                 .name("Иван Иванов")
@@ -115,27 +151,57 @@ class TimetableServiceTest {
     @Test
     void getAvailableSlots_withValidDate_shouldReturnAvailableSlots() {
         LocalDate date = LocalDate.of(2024, 1, 15);
-        List<TimeSlot> timeSlots = Arrays.asList(testTimeSlot);
 
-        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.of(testScheduleDay));
-        when(timeSlotRepository.findByScheduleDate(date)).thenReturn(timeSlots);
+        when(scheduleDayRepository.findDaySlots(date)).thenReturn(List.of(
+                daySlot(false, LocalTime.of(14, 0), 5),
+                daySlot(false, LocalTime.of(15, 0), 10)));
 
         List<TimeSlotResponseDTO> result = timetableService.getAvailableSlots(date);
 
         assertNotNull(result);
-        verify(scheduleDayRepository, times(1)).findByDate(date);
-        verify(timeSlotRepository, times(1)).findByScheduleDate(date);
+        assertEquals(13, result.size());
+        assertEquals(new TimeSlotResponseDTO("14:00", 5), result.get(6));
+        assertTrue(result.stream().noneMatch(slot -> slot.getTime().equals("15:00")));
+        verify(scheduleDayRepository, times(1)).findDaySlots(date);
+        verify(scheduleDayRepository, never()).findByDate(any());
+        verify(timeSlotRepository, never()).findByScheduleDate(any());
+    }
+
+    @Test
+    void getAvailableSlots_repeated_shouldServeFromCacheUntilDateChanges() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+
+        when(scheduleDayRepository.findDaySlots(date))
+                .thenReturn(List.of(daySlot(false, LocalTime.of(14, 0), 5)))
+                .thenReturn(List.of(daySlot(false, LocalTime.of(14, 0), 6)));
+
+        assertEquals(new TimeSlotResponseDTO("14:00", 5), timetableService.getAvailableSlots(date).get(6));
+        assertEquals(new TimeSlotResponseDTO("14:00", 5), timetableService.getAvailableSlots(date).get(6));
+        assertEquals(5, timetableService.getAllBookedSlots(date).get(6).getCount());
+
+        slotVersionRegistry.bump(date);
+
+        assertEquals(new TimeSlotResponseDTO("14:00", 4), timetableService.getAvailableSlots(date).get(6));
+        verify(scheduleDayRepository, times(2)).findDaySlots(date);
+        verify(scheduleDayRepository, never()).findByDate(any());
+    }
+
+    @Test
+    void getAvailableSlots_withoutTimeSlots_shouldReturnWholeDay() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+
+        when(scheduleDayRepository.findDaySlots(date)).thenReturn(List.of(daySlot(false, null, null)));
+
+        List<TimeSlotResponseDTO> result = timetableService.getAvailableSlots(date);
+
+        assertEquals(14, result.size());
+        assertEquals(new TimeSlotResponseDTO("08:00", 10), result.get(0));
     }
 
     @Test
     void getAvailableSlots_onHoliday_shouldThrowException() {
         LocalDate date = LocalDate.of(2024, 1, 1);
-        ScheduleDay holidaySchedule = ScheduleDay.builder()
-                .date(date)
-                .isHoliday(true)
-                .build();
-
-        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.of(holidaySchedule));
+        when(scheduleDayRepository.findDaySlots(date)).thenReturn(List.of(daySlot(true, null, null)));
 
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
@@ -143,14 +209,14 @@ class TimetableServiceTest {
         );
 
         assertEquals("Это праздничный день", exception.getMessage());
-        verify(scheduleDayRepository, times(1)).findByDate(date);
+        verify(scheduleDayRepository, times(1)).findDaySlots(date);
     }
 
     @Test
     void getAvailableSlots_withoutSchedule_shouldThrowException() {
         LocalDate date = LocalDate.of(2024, 1, 15);
 
-        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.empty());
+        when(scheduleDayRepository.findDaySlots(date)).thenReturn(List.of());
 
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
@@ -158,7 +224,43 @@ class TimetableServiceTest {
         );
 
         assertEquals("На эту дату нет расписания", exception.getMessage());
-        verify(scheduleDayRepository, times(1)).findByDate(date);
+        verify(scheduleDayRepository, times(1)).findDaySlots(date);
+    }
+
+    @Test
+    void getAvailableSlots_forRange_shouldQueryOnceAndGroupByDate() {
+        LocalDate from = LocalDate.of(2024, 1, 15);
+        LocalDate to = LocalDate.of(2024, 1, 21);
+        ScheduleDay holiday = ScheduleDay.builder()
+                .date(LocalDate.of(2024, 1, 16))
+                .isHoliday(true)
+                .build();
+
+        when(scheduleDayRepository.findByDateBetweenOrderByDate(from, to))
+                .thenReturn(List.of(testScheduleDay, holiday));
+        when(timeSlotRepository.findByScheduleDateBetween(from, to)).thenReturn(List.of(testTimeSlot));
+
+        Map<LocalDate, List<TimeSlotResponseDTO>> result = timetableService.getAvailableSlots(from, to);
+
+        assertEquals(2, result.size());
+        assertEquals(14, result.get(from).size());
+        assertEquals(5, result.get(from).get(6).getCount());
+        assertTrue(result.get(holiday.getDate()).isEmpty());
+        verify(scheduleDayRepository, never()).findByDate(any());
+        verify(timeSlotRepository, never()).findByScheduleDate(any());
+    }
+
+    @Test
+    void getAllBookedSlots_forTooLongRange_shouldThrowException() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> timetableService.getAllBookedSlots(from, from.plusDays(31))
+        );
+
+        assertEquals("Период не может быть длиннее 31 дней", exception.getMessage());
+        verify(scheduleDayRepository, never()).findByDateBetweenOrderByDate(any(), any());
     }
 
     @Test
@@ -216,6 +318,7 @@ class TimetableServiceTest {
                 10);
 
         verify(appointmentRepository, times(1)).save(any(Appointment.class));
+        verify(eventPublisher).publishEvent(new SlotChangedEvent(datetime.toLocalDate(), hour, 1));
     }
 
     @Test
@@ -323,6 +426,110 @@ class TimetableServiceTest {
         verify(appointmentRepository, times(1)).findActiveByClientAndDate(1L, datetime.toLocalDate());
     }
 
+    @Test
+    void reserveAppointment_whenNoSlotUpdated_shouldThrowException() {
+        LocalDateTime datetime = LocalDateTime.of(2024, 1, 15, 14, 0);
+
+        AppointmentDTO appointmentDTO = new AppointmentDTO();
+        appointmentDTO.setClientId(1L);
+        appointmentDTO.setDatetime(datetime);
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(testClient));
+        when(scheduleDayRepository.findByDate(datetime.toLocalDate()))
+                .thenReturn(Optional.of(testScheduleDay));
+        when(appointmentRepository.findActiveByClientAndDate(1L, datetime.toLocalDate()))
+                .thenReturn(Optional.empty());
+        when(timeSlotRepository.incrementBookedCount(datetime.toLocalDate(), LocalTime.of(14, 0), 10))
+                .thenReturn(0);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> timetableService.reserveAppointment(appointmentDTO));
+
+        assertEquals("Нет свободных мест на это время", exception.getMessage());
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    void reserveAppointments_shouldReturnResultPerItem() {
+        LocalDateTime datetime = LocalDateTime.of(2024, 1, 15, 14, 0);
+        LocalDate date = datetime.toLocalDate();
+
+        AppointmentDTO first = new AppointmentDTO();
+        first.setClientId(1L);
+        first.setDatetime(datetime);
+
+        AppointmentDTO duplicate = new AppointmentDTO();
+        duplicate.setClientId(1L);
+        duplicate.setDatetime(datetime.plusHours(1));
+
+        AppointmentDTO unknownClient = new AppointmentDTO();
+        unknownClient.setClientId(99L);
+        unknownClient.setDatetime(datetime);
+
+        when(clientRepository.findAllById(anyIterable())).thenReturn(List.of(testClient));
+        when(scheduleDayRepository.findByDateIn(anyCollection())).thenReturn(List.of(testScheduleDay));
+        when(appointmentRepository.findActiveByClientsAndDates(anyCollection(), anyCollection()))
+                .thenReturn(List.of());
+        when(appointmentBatchRepository.incrementBookedCounts(anyList(), anyMap()))
+                .thenReturn(new int[]{1});
+        when(appointmentBatchRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Appointment> inserted = invocation.getArgument(0);
+            return inserted.stream().map(Appointment::getId).collect(Collectors.toSet());
+        });
+
+        List<BatchReservationResultDTO> results =
+                timetableService.reserveAppointments(List.of(first, duplicate, unknownClient));
+
+        assertEquals(3, results.size());
+        assertNotNull(results.get(0).getOrderId());
+        assertNull(results.get(0).getError());
+        assertEquals("У клиента уже есть запись на этот день", results.get(1).getError());
+        assertEquals("Клиент не найден", results.get(2).getError());
+
+        verify(scheduleDayRepository, times(1)).findByDateIn(Set.of(date));
+        verify(appointmentBatchRepository, times(1)).incrementBookedCounts(anyList(), anyMap());
+        verify(appointmentBatchRepository, times(1)).insertAll(argThat(list -> list.size() == 1));
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    void reserveAppointments_whenSlotFull_shouldNotInsert() {
+        AppointmentDTO appointmentDTO = new AppointmentDTO();
+        appointmentDTO.setClientId(1L);
+        appointmentDTO.setDatetime(LocalDateTime.of(2024, 1, 15, 14, 0));
+
+        when(clientRepository.findAllById(anyIterable())).thenReturn(List.of(testClient));
+        when(scheduleDayRepository.findByDateIn(anyCollection())).thenReturn(List.of(testScheduleDay));
+        when(appointmentBatchRepository.incrementBookedCounts(anyList(), anyMap()))
+                .thenReturn(new int[]{0});
+
+        List<BatchReservationResultDTO> results =
+                timetableService.reserveAppointments(List.of(appointmentDTO));
+
+        assertEquals("Нет свободных мест на это время", results.get(0).getError());
+        verify(appointmentBatchRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void reserveAppointments_whenConcurrentBookingConflicts_shouldFailOnlyThatItem() {
+        AppointmentDTO appointmentDTO = new AppointmentDTO();
+        appointmentDTO.setClientId(1L);
+        appointmentDTO.setDatetime(LocalDateTime.of(2024, 1, 15, 14, 0));
+
+        when(clientRepository.findAllById(anyIterable())).thenReturn(List.of(testClient));
+        when(scheduleDayRepository.findByDateIn(anyCollection())).thenReturn(List.of(testScheduleDay));
+        when(appointmentBatchRepository.incrementBookedCounts(anyList(), anyMap()))
+                .thenReturn(new int[]{1});
+        when(appointmentBatchRepository.insertAll(anyList())).thenReturn(Set.of());
+
+        List<BatchReservationResultDTO> results =
+                timetableService.reserveAppointments(List.of(appointmentDTO));
+
+        assertNull(results.get(0).getOrderId());
+        assertEquals("У клиента уже есть запись на этот день", results.get(0).getError());
+        verify(timeSlotRepository).decrementBookedCount(LocalDate.of(2024, 1, 15), LocalTime.of(14, 0));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
 
     @Test
     void cancelAppointment_withValidData_shouldSuccess() {
@@ -406,4 +613,97 @@ class TimetableServiceTest {
         assertEquals("Запись не найдена", exception.getMessage());
         verify(appointmentRepository, times(1)).findByIdAndClientId(appointmentId, wrongClientId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void reserveAppointment_forSeveralHours_shouldReserveWholeRange() {
+        LocalDateTime datetime = LocalDateTime.of(2024, 1, 15, 14, 0);
+        LocalDate date = datetime.toLocalDate();
+        AppointmentDTO appointmentDTO = new AppointmentDTO();
+        appointmentDTO.setClientId(1L);
+        appointmentDTO.setDatetime(datetime);
+        appointmentDTO.setDurationHours(3);
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(testClient));
+        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.of(testScheduleDay));
+        when(appointmentRepository.findActiveByClientAndDate(1L, date)).thenReturn(Optional.empty());
+        when(timeSlotRepository.incrementBookedCountRange(date, LocalTime.of(14, 0), LocalTime.of(16, 0), 10, 3))
+                .thenReturn(3);
+
+        timetableService.reserveAppointment(appointmentDTO);
+
+        verify(timeSlotRepository, never()).incrementBookedCount(any(), any(), any());
+        verify(appointmentRepository).save(argThat(appointment -> appointment.getDurationHours() == 3));
+        verify(eventPublisher).publishEvent(new SlotChangedEvent(date, LocalTime.of(14, 0), 1));
+        verify(eventPublisher).publishEvent(new SlotChangedEvent(date, LocalTime.of(15, 0), 1));
+        verify(eventPublisher).publishEvent(new SlotChangedEvent(date, LocalTime.of(16, 0), 1));
+    }
+
+    @Test
+    void reserveAppointment_forSeveralHours_whenOneHourIsFull_shouldThrowException() {
+        LocalDateTime datetime = LocalDateTime.of(2024, 1, 15, 14, 0);
+        LocalDate date = datetime.toLocalDate();
+        AppointmentDTO appointmentDTO = new AppointmentDTO();
+        appointmentDTO.setClientId(1L);
+        appointmentDTO.setDatetime(datetime);
+        appointmentDTO.setDurationHours(2);
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(testClient));
+        when(scheduleDayRepository.findByDate(date)).thenReturn(Optional.of(testScheduleDay));
+        when(appointmentRepository.findActiveByClientAndDate(1L, date)).thenReturn(Optional.empty());
+        when(timeSlotRepository.incrementBookedCountRange(date, LocalTime.of(14, 0), LocalTime.of(15, 0), 10, 2))
+                .thenReturn(0);
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> timetableService.reserveAppointment(appointmentDTO)
+        );
+
+        assertEquals("Нет свободных мест на это время", exception.getMessage());
+        verify(appointmentRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void reserveAppointment_forSeveralHours_pastClosingTime_shouldThrowException() {
+        LocalDateTime datetime = LocalDateTime.of(2024, 1, 15, 20, 0);
+        AppointmentDTO appointmentDTO = new AppointmentDTO();
+        appointmentDTO.setClientId(1L);
+        appointmentDTO.setDatetime(datetime);
+        appointmentDTO.setDurationHours(3);
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(testClient));
+        when(scheduleDayRepository.findByDate(datetime.toLocalDate())).thenReturn(Optional.of(testScheduleDay));
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> timetableService.reserveAppointment(appointmentDTO)
+        );
+
+        assertEquals("Вне рабочего времени", exception.getMessage());
+        verify(timeSlotRepository, never()).incrementBookedCountRange(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void cancelAppointment_forSeveralHours_shouldReleaseWholeRange() {
+        UUID appointmentId = UUID.randomUUID();
+        testAppointment.setDurationHours(2);
+
+        when(appointmentRepository.findByIdAndClientId(appointmentId, 1L))
+                .thenReturn(Optional.of(testAppointment));
+
+        timetableService.cancelAppointment(1L, appointmentId);
+
+        verify(timeSlotRepository).decrementBookedCountRange(
+                testAppointment.getScheduleDate(), LocalTime.of(14, 0), LocalTime.of(15, 0));
+        verify(timeSlotRepository, never()).decrementBookedCount(any(), any());
+    }
+
+    private DaySlotView daySlot(boolean holiday, LocalTime hour, Integer bookedCount) {
+        return new DaySlotRow(holiday, LocalTime.of(8, 0), LocalTime.of(22, 0), 10, hour, bookedCount);
+    }
+
+    private record DaySlotRow(Boolean getIsHoliday, LocalTime getOpeningTime, LocalTime getClosingTime,
+                              Integer getMaxCapacity, LocalTime getHour, Integer getBookedCount)
+            implements DaySlotView {
+    }
+}